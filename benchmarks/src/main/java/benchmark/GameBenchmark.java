@@ -0,0 +1,86 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legal move generation, move validation and game status checks on the
+ * fixture positions, from the side to move's point of view.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public Positions position;
+
+    private ChessGame game;
+    private ChessGame.TeamColor turn;
+    private ChessPosition[] ownPieces;
+    private ChessMove move;
+
+    @Setup
+    public void setUp() {
+        game = position.newGame();
+        turn = game.getTeamTurn();
+        List<ChessPosition> found = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var square = new ChessPosition(row, col);
+                var piece = game.getBoard().getPiece(square);
+                if (piece != null && piece.getTeamColor() == turn) {
+                    found.add(square);
+                }
+            }
+        }
+        ownPieces = found.toArray(new ChessPosition[0]);
+        for (ChessPosition square : ownPieces) {
+            var valid = game.validMoves(square);
+            if (!valid.isEmpty()) {
+                move = valid.iterator().next();
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition square : ownPieces) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        game.makeMove(move);
+        game.unmakeMove();
+        return game;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(turn);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(turn);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(turn);
+    }
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.Map;
+
+/**
+ * The fixed positions every benchmark runs against, so results stay
+ * comparable from one engine change to the next. Boards are drawn with white
+ * at the bottom, row 8 first, in the same format as the passoff tests.
+ */
+public enum Positions {
+    OPENING(ChessGame.TeamColor.BLACK, """
+            |r| |b|q|k|b|n|r|
+            |p|p|p|p| |p|p|p|
+            | | |n| | | | | |
+            | |B| | |p| | | |
+            | | | | |P| | | |
+            | | | | | |N| | |
+            |P|P|P|P| |P|P|P|
+            |R|N|B|Q|K| | |R|
+            """),
+    MIDDLEGAME(ChessGame.TeamColor.WHITE, """
+            |r| | |q| |r|k| |
+            |p|p| | |b|p|p|p|
+            | | |n|p|b|n| | |
+            | | |p| |p| | | |
+            | | |P| |P| | | |
+            | | |N|P| |N|P| |
+            |P|P| | | |P|B|P|
+            |R| |B|Q| |R|K| |
+            """),
+    ENDGAME(ChessGame.TeamColor.WHITE, """
+            | | | | | | | | |
+            | | | | | |k|p| |
+            | | | | | | | |p|
+            | | | |R| | | | |
+            | |p| | | | | | |
+            | | | | | | |P| |
+            | | | | | | |K|P|
+            | |r| | | | | | |
+            """);
+
+    private static final Map<Character, ChessPiece.PieceType> CHAR_TO_TYPE = Map.of(
+            'p', ChessPiece.PieceType.PAWN,
+            'n', ChessPiece.PieceType.KNIGHT,
+            'r', ChessPiece.PieceType.ROOK,
+            'q', ChessPiece.PieceType.QUEEN,
+            'k', ChessPiece.PieceType.KING,
+            'b', ChessPiece.PieceType.BISHOP);
+
+    private final ChessGame.TeamColor turn;
+    private final String boardText;
+
+    Positions(ChessGame.TeamColor turn, String boardText) {
+        this.turn = turn;
+        this.boardText = boardText;
+    }
+
+    /**
+     * @return a new game set up at this position
+     */
+    public ChessGame newGame() {
+        ChessGame game = new ChessGame();
+        game.setBoard(newBoard());
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    public ChessBoard newBoard() {
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int column = 1;
+        for (char c : boardText.toCharArray()) {
+            switch (c) {
+                case '\n' -> {
+                    column = 1;
+                    row--;
+                }
+                case ' ' -> column++;
+                case '|' -> {
+                }
+                default -> {
+                    ChessGame.TeamColor color = Character.isLowerCase(c) ? ChessGame.TeamColor.BLACK
+                            : ChessGame.TeamColor.WHITE;
+                    board.addPiece(new ChessPosition(row, column),
+                            new ChessPiece(color, CHAR_TO_TYPE.get(Character.toLowerCase(c))));
+                    column++;
+                }
+            }
+        }
+        return board;
+    }
+}
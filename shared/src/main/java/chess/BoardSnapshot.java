@@ -0,0 +1,218 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * An immutable position: piece placement, whose turn it is, the
+ * {@link GameState} word and the fullmove number. {@link #apply} returns a
+ * new snapshot instead of changing this one, so snapshots can be kept as
+ * history or read from any thread without copying.
+ * <p>
+ * Two snapshots are equal when they are the same position for repetition:
+ * same placement, turn, castling rights and en passant square. The halfmove
+ * clock and fullmove number are carried along but not compared, matching
+ * {@link #zobrist()}.
+ * <p>
+ * Each color's pieces are six bitboards in their own array. A move copies only
+ * the arrays of the colors it changes (the mover's, plus the opponent's on a
+ * capture) and shares the other with the previous snapshot, so a snapshot
+ * costs two small objects per ply rather than a copy of the whole board.
+ */
+public final class BoardSnapshot {
+    private final long[] white;
+    private final long[] black;
+    private final TeamColor teamTurn;
+    private final int state;
+    private final long boardKey;
+    private final int fullmoveNumber;
+
+    private BoardSnapshot(long[] white, long[] black, TeamColor teamTurn, int state, long boardKey,
+                          int fullmoveNumber) {
+        this.white = white;
+        this.black = black;
+        this.teamTurn = teamTurn;
+        this.state = state;
+        this.boardKey = boardKey;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Captures a board's current placement, at fullmove number 1
+     *
+     * @param teamTurn the team to move
+     * @param state    the castling rights and en passant square, packed by {@link GameState}
+     */
+    public static BoardSnapshot of(ChessBoard board, TeamColor teamTurn, int state) {
+        return of(board, teamTurn, state, 1);
+    }
+
+    private static BoardSnapshot of(ChessBoard board, TeamColor teamTurn, int state, int fullmoveNumber) {
+        long[] white = new long[6];
+        long[] black = new long[6];
+        for (PieceType type : PieceType.values()) {
+            white[type.ordinal()] = board.getBitboard(TeamColor.WHITE, type);
+            black[type.ordinal()] = board.getBitboard(TeamColor.BLACK, type);
+        }
+        return new BoardSnapshot(white, black, teamTurn, state, board.zobrist(), fullmoveNumber);
+    }
+
+    /**
+     * Captures a game's current position
+     */
+    public static BoardSnapshot of(ChessGame game) {
+        return of(game.getBoard(), game.getTeamTurn(), game.getState(), game.getFullmoveNumber());
+    }
+
+    /**
+     * Makes a move without checking that it is legal and passes the turn
+     *
+     * @param move a {@link PackedMove} from {@link MoveGenerator} for the team to move,
+     *             whose flags mark en passant and castling
+     * @return the position after the move; this snapshot is unchanged
+     */
+    public BoardSnapshot apply(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int color = teamTurn.ordinal();
+        long[] mover = (color == 0) ? white.clone() : black.clone();
+        long[] opponent = (color == 0) ? black : white;
+        long key = boardKey;
+
+        int capturedSquare = ((move & PackedMove.FLAG_EN_PASSANT) != 0) ? ChessBoard.enPassantVictim(from, to) : to;
+        int captured = typeAt(opponent, capturedSquare);
+        if (captured >= 0) {
+            opponent = opponent.clone();
+            opponent[captured] &= ~(1L << capturedSquare);
+            key ^= Zobrist.piece((1 - color) * 6 + captured, capturedSquare);
+        }
+
+        int moving = typeAt(mover, from);
+        PieceType promotion = PackedMove.promotion(move);
+        int placed = (promotion == null) ? moving : promotion.ordinal();
+        mover[moving] &= ~(1L << from);
+        mover[placed] |= 1L << to;
+        key ^= Zobrist.piece(color * 6 + moving, from) ^ Zobrist.piece(color * 6 + placed, to);
+
+        if ((move & PackedMove.FLAG_CASTLE) != 0) {
+            int rookFrom = ChessBoard.castlingRookFrom(to);
+            int rookTo = ChessBoard.castlingRookTo(to);
+            int rook = PieceType.ROOK.ordinal();
+            mover[rook] ^= (1L << rookFrom) | (1L << rookTo);
+            key ^= Zobrist.piece(color * 6 + rook, rookFrom) ^ Zobrist.piece(color * 6 + rook, rookTo);
+        }
+
+        int nextState = GameState.afterMove(state, move, moving == PieceType.PAWN.ordinal());
+        return new BoardSnapshot((color == 0) ? mover : opponent, (color == 0) ? opponent : mover,
+                MoveGenerator.opponent(teamTurn), nextState, key,
+                (teamTurn == TeamColor.BLACK) ? fullmoveNumber + 1 : fullmoveNumber);
+    }
+
+    private static int typeAt(long[] pieces, int square) {
+        long bit = 1L << square;
+        for (int type = 0; type < pieces.length; type++) {
+            if ((pieces[type] & bit) != 0) {
+                return type;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the piece on a square (0 = a1, 63 = h8), or null
+     */
+    public ChessPiece getPiece(int square) {
+        int type = typeAt(white, square);
+        if (type >= 0) {
+            return ChessPiece.of(TeamColor.WHITE, PieceType.values()[type]);
+        }
+        type = typeAt(black, square);
+        return (type >= 0) ? ChessPiece.of(TeamColor.BLACK, PieceType.values()[type]) : null;
+    }
+
+    public ChessPiece getPiece(ChessPosition position) {
+        return getPiece(ChessBoard.squareOf(position));
+    }
+
+    public long getBitboard(TeamColor color, PieceType type) {
+        return ((color == TeamColor.WHITE) ? white : black)[type.ordinal()];
+    }
+
+    public TeamColor getTeamTurn() {
+        return teamTurn;
+    }
+
+    /**
+     * @return the castling rights and en passant square, packed by {@link GameState}
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of the current full move, starting at 1 and
+     * incremented after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return the same key {@link ChessGame#zobrist()} gives for this position
+     */
+    public long zobrist() {
+        return ChessGame.zobrist(boardKey, teamTurn, state, getBitboard(teamTurn, PieceType.PAWN));
+    }
+
+    /**
+     * @return a new mutable board with this placement
+     */
+    public ChessBoard toBoard() {
+        ChessBoard board = new ChessBoard();
+        for (TeamColor color : TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                long pieces = getBitboard(color, type);
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    board.addPiece(ChessPosition.of(square), ChessPiece.of(color, type));
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @return a new game at this position and fullmove number, with no moves to unmake
+     */
+    public ChessGame toGame() {
+        return new ChessGame(toBoard(), teamTurn, state, fullmoveNumber);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BoardSnapshot that = (BoardSnapshot) o;
+        // the halfmove clock is not part of the position
+        return teamTurn == that.teamTurn
+                && GameState.withHalfmoveClock(state, 0) == GameState.withHalfmoveClock(that.state, 0)
+                && Arrays.equals(white, that.white) && Arrays.equals(black, that.black);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobrist());
+    }
+
+    @Override
+    public String toString() {
+        return toBoard().toString();
+    }
+}
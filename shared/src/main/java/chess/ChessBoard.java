@@ -1,7 +1,6 @@
 package chess;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 
@@ -11,43 +10,85 @@ import static chess.ChessPiece.PieceType;
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are stored as one 64-bit occupancy mask per piece type and color,
+ * where bit {@code (row - 1) * 8 + (column - 1)} is set when that square holds
+ * the piece. A 64-entry array of the pieces themselves is kept alongside the
+ * masks so {@link #getPiece} is a single lookup. The board only holds the
+ * shared {@link ChessPiece#of} instances, so copying it never copies pieces.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
-    private ChessPiece[][] chessBoard;
+    /**
+     * The most pieces of one type and color a board can hold; see {@link #getMaterialSignature}
+     */
+    public static final int MAX_PIECES_OF_TYPE = 15;
+
+    private final long[] pieceBitboards;
+    private final long[] colorBitboards;
+    private final ChessPiece[] squares;
+    // per-color lists of occupied squares, and each occupied square's slot in its list
+    private final int[][] pieceLists;
+    private final int[] pieceCounts;
+    private final int[] listSlots;
+    private long zobrist;
+    // per-color piece counts, four bits per piece type (see getMaterialSignature)
+    private final int[] materialSignatures;
+    // packed sum of PieceSquareTables scores, and the game phase (see getPieceSquareScore)
+    private int pieceSquareScore;
+    private int phase;
     Collection<ChessPosition> blackPositions;
     Collection<ChessPosition> whitePositions;
     ChessPosition blackKing;
     ChessPosition whiteKing;
 
     public ChessBoard() {
-        chessBoard = new ChessPiece[8][8];
+        pieceBitboards = new long[12];
+        colorBitboards = new long[2];
+        squares = new ChessPiece[64];
+        pieceLists = new int[2][64];
+        pieceCounts = new int[2];
+        listSlots = new int[64];
+        materialSignatures = new int[2];
     }
 
     public ChessBoard(ChessBoard other) {
-        // Initialize a new chess board array
-        this.chessBoard = new ChessPiece[8][8];
-
-        // Copy each piece from the original board to the new board
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (other.chessBoard[i][j] != null) {
-                    ChessPiece originalPiece = other.chessBoard[i][j];
-                    this.chessBoard[i][j] = new ChessPiece(originalPiece.getTeamColor(), originalPiece.getPieceType());
-                }
-            }
-        }
+        this.pieceBitboards = other.pieceBitboards.clone();
+        this.colorBitboards = other.colorBitboards.clone();
+        // pieces are immutable flyweights, so the copy shares them
+        this.squares = other.squares.clone();
+        this.pieceLists = new int[][]{other.pieceLists[0].clone(), other.pieceLists[1].clone()};
+        this.pieceCounts = other.pieceCounts.clone();
+        this.listSlots = other.listSlots.clone();
+        this.zobrist = other.zobrist;
+        this.materialSignatures = other.materialSignatures.clone();
+        this.pieceSquareScore = other.pieceSquareScore;
+        this.phase = other.phase;
     }
 
     /**
-     * Adds a chess piece to the chessboard
+     * Adds a chess piece to the chessboard. A color may have at most
+     * {@link #MAX_PIECES_OF_TYPE} pieces of one type, the most a material
+     * signature can count; legal play never comes close.
      *
      * @param position where to add the piece to
      * @param piece    the piece to add
+     * @throws IllegalArgumentException if the board already holds the maximum
+     *                                  of that piece elsewhere
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        chessBoard[(position.getColumn()) - 1][(position.getRow()) - 1] = piece;
+        checkBounds(position);
+        int square = squareOf(position);
+        if (piece != null && squares[square] != ChessPiece.of(piece.getTeamColor(), piece.getPieceType())
+                && countOf(getMaterialSignature(piece.getTeamColor()), piece.getPieceType()) == MAX_PIECES_OF_TYPE) {
+            throw new IllegalArgumentException("A board holds at most " + MAX_PIECES_OF_TYPE
+                    + " pieces of one type: " + piece.getTeamColor() + " " + piece.getPieceType());
+        }
+        removePiece(square);
+        if (piece != null) {
+            placePiece(square, ChessPiece.of(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -58,10 +99,326 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
+        checkBounds(position);
+        return squares[squareOf(position)];
+    }
+
+    /**
+     * Gets the chess piece on a square index (see {@link #squareOf})
+     *
+     * @return Either the piece on the square, or null if the square is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return squares[square];
+    }
+
+    /**
+     * @return the occupancy mask of the given piece type and color
+     */
+    public long getBitboard(TeamColor color, PieceType type) {
+        return pieceBitboards[color.ordinal() * 6 + type.ordinal()];
+    }
+
+    /**
+     * @return the occupancy mask of every piece of the given color
+     */
+    public long getOccupancy(TeamColor color) {
+        return colorBitboards[color.ordinal()];
+    }
+
+    /**
+     * @return the occupancy mask of every piece on the board
+     */
+    public long getOccupancy() {
+        return colorBitboards[0] | colorBitboards[1];
+    }
+
+    /**
+     * Applies a packed move in place, replacing the moving pawn with its
+     * promotion piece when the move promotes
+     *
+     * @param move a {@link PackedMove} whose start square holds a piece
+     * @return the captured piece, or null; pass it back to {@link #unmakeMove}
+     */
+    public ChessPiece makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int capturedSquare = ((move & PackedMove.FLAG_EN_PASSANT) != 0) ? enPassantVictim(from, to) : to;
+        ChessPiece captured = squares[capturedSquare];
+        if (captured != null) {
+            removePiece(capturedSquare);
+        }
+        movePiece(from, to);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        if (promotion != null) {
+            replacePiece(to, ChessPiece.of(squares[to].getTeamColor(), promotion));
+        }
+        if ((move & PackedMove.FLAG_CASTLE) != 0) {
+            movePiece(castlingRookFrom(to), castlingRookTo(to));
+        }
+        return captured;
+    }
+
+    /**
+     * Reverts a move applied by {@link #makeMove}; moves must be unmade in the
+     * reverse order they were made
+     *
+     * @param move     the move that was made
+     * @param captured the piece makeMove returned
+     */
+    public void unmakeMove(int move, ChessPiece captured) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if ((move & PackedMove.FLAG_CASTLE) != 0) {
+            movePiece(castlingRookTo(to), castlingRookFrom(to));
+        }
+        if (PackedMove.isPromotion(move)) {
+            replacePiece(to, ChessPiece.of(squares[to].getTeamColor(), PieceType.PAWN));
+        }
+        movePiece(to, from);
+        if (captured != null) {
+            placePiece(((move & PackedMove.FLAG_EN_PASSANT) != 0) ? enPassantVictim(from, to) : to, captured);
+        }
+    }
+
+    /**
+     * @return the square of the pawn captured en passant: beside the capturing
+     * pawn's start square, on the end square's column
+     */
+    static int enPassantVictim(int from, int to) {
+        return (from & ~7) | (to & 7);
+    }
+
+    /**
+     * @return the rook's start square for a castling king landing on kingTo
+     */
+    static int castlingRookFrom(int kingTo) {
+        return (kingTo & 7) == 6 ? kingTo + 1 : kingTo - 2;
+    }
+
+    /**
+     * @return the rook's end square for a castling king landing on kingTo
+     */
+    static int castlingRookTo(int kingTo) {
+        return (kingTo & 7) == 6 ? kingTo - 1 : kingTo + 1;
+    }
+
+    /**
+     * Gets the Zobrist key of the piece placement, kept up to date as pieces
+     * are added and moves are made. Equal boards always have equal keys.
+     *
+     * @return the XOR of {@link Zobrist#piece} for every piece on the board
+     */
+    public long zobrist() {
+        return zobrist;
+    }
+
+    /**
+     * Gets a color's material signature: how many pieces of each type it has,
+     * packed four bits per type in {@link PieceType} order, so the whole
+     * material balance can be compared or looked up in one int. Kept up to
+     * date as pieces are added, captured and promoted. Four bits count up to
+     * {@link #MAX_PIECES_OF_TYPE}, which {@link #addPiece} enforces.
+     *
+     * @see #countOf(int, PieceType)
+     */
+    public int getMaterialSignature(TeamColor color) {
+        return materialSignatures[color.ordinal()];
+    }
+
+    /**
+     * @return how many pieces of the given type a material signature holds
+     */
+    public static int countOf(int materialSignature, PieceType type) {
+        return (materialSignature >>> signatureShift(type.ordinal())) & 0xF;
+    }
+
+    private static int signatureShift(int typeOrdinal) {
+        return typeOrdinal * 4;
+    }
+
+    /**
+     * Gets the sum of {@link PieceSquareTables#score} for every piece on the
+     * board: white's material and placement advantage, with middlegame and
+     * endgame halves packed into one int. Kept up to date as pieces are added
+     * and moves are made, at one add per piece moved.
+     *
+     * @see PieceSquareTables#taper(int, int)
+     */
+    public int getPieceSquareScore() {
+        return pieceSquareScore;
+    }
+
+    /**
+     * @return the sum of {@link PieceSquareTables#phase} over every piece on
+     * the board, {@link PieceSquareTables#MAX_PHASE} at the start
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return how many pieces of the given color are on the board
+     */
+    public int getPieceCount(TeamColor color) {
+        return pieceCounts[color.ordinal()];
+    }
+
+    /**
+     * Gets the square of one of a color's pieces. Indexes run from 0 to
+     * {@link #getPieceCount} - 1; moving a piece keeps its index, but adding or
+     * removing pieces may reorder the list.
+     */
+    public int getPieceSquare(TeamColor color, int index) {
+        return pieceLists[color.ordinal()][index];
+    }
+
+    /**
+     * @return the square of the given color's king, or -1 if it has no king on the board
+     */
+    public int getKingSquare(TeamColor color) {
+        long king = pieceBitboards[color.ordinal() * 6 + PieceType.KING.ordinal()];
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * @return the position of the given color's king, or null if it has no king on the board
+     */
+    public ChessPosition getKingPosition(TeamColor color) {
+        int square = getKingSquare(color);
+        return square < 0 ? null : PackedMove.position(square);
+    }
+
+    /**
+     * Determines if any piece of the given color attacks a square. Works
+     * outward from the square: a knight, king or pawn attacks it exactly when
+     * that piece would attack the attacker from the square, and a slider
+     * attacks it when the first piece along one of its rays is a matching slider.
+     *
+     * @param square  the square index to test
+     * @param byColor the attacking team
+     * @return True if a piece of byColor attacks the square
+     */
+    public boolean isSquareAttacked(int square, TeamColor byColor) {
+        int attacker = byColor.ordinal() * 6;
+        TeamColor defender = (byColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        if ((Bitboards.knightAttacks(square) & pieceBitboards[attacker + PieceType.KNIGHT.ordinal()]) != 0
+                || (Bitboards.pawnAttacks(defender, square) & pieceBitboards[attacker + PieceType.PAWN.ordinal()]) != 0
+                || (Bitboards.kingAttacks(square) & pieceBitboards[attacker + PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+        long queens = pieceBitboards[attacker + PieceType.QUEEN.ordinal()];
+        long straight = pieceBitboards[attacker + PieceType.ROOK.ordinal()] | queens;
+        long diagonal = pieceBitboards[attacker + PieceType.BISHOP.ordinal()] | queens;
+        long occupied = getOccupancy();
+        return (straight != 0 && (Bitboards.rookAttacks(square, occupied) & straight) != 0)
+                || (diagonal != 0 && (Bitboards.bishopAttacks(square, occupied) & diagonal) != 0);
+    }
+
+    /**
+     * Finds every piece of the given color attacking a square, treating only
+     * the squares in occupied as blockers
+     *
+     * @return the attackers' occupancy mask
+     */
+    public long getAttackers(int square, TeamColor byColor, long occupied) {
+        int attacker = byColor.ordinal() * 6;
+        TeamColor defender = (byColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        long queens = pieceBitboards[attacker + PieceType.QUEEN.ordinal()];
+        return (Bitboards.knightAttacks(square) & pieceBitboards[attacker + PieceType.KNIGHT.ordinal()])
+                | (Bitboards.pawnAttacks(defender, square) & pieceBitboards[attacker + PieceType.PAWN.ordinal()])
+                | (Bitboards.kingAttacks(square) & pieceBitboards[attacker + PieceType.KING.ordinal()])
+                | (Bitboards.rookAttacks(square, occupied) & (pieceBitboards[attacker + PieceType.ROOK.ordinal()] | queens))
+                | (Bitboards.bishopAttacks(square, occupied) & (pieceBitboards[attacker + PieceType.BISHOP.ordinal()] | queens));
+    }
+
+    /**
+     * @see #isSquareAttacked(int, TeamColor)
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor byColor) {
+        checkBounds(position);
+        return isSquareAttacked(squareOf(position), byColor);
+    }
+
+    /**
+     * Converts a position to its square index, 0 (row 1, column 1) through 63
+     * (row 8, column 8)
+     */
+    public static int squareOf(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+    }
+
+    private void placePiece(int square, ChessPiece piece) {
+        long bit = 1L << square;
+        pieceBitboards[piece.index()] |= bit;
+        colorBitboards[piece.getTeamColor().ordinal()] |= bit;
+        squares[square] = piece;
+        zobrist ^= Zobrist.piece(piece.index(), square);
+        int color = piece.getTeamColor().ordinal();
+        materialSignatures[color] += 1 << signatureShift(piece.getPieceType().ordinal());
+        pieceSquareScore += PieceSquareTables.score(piece.index(), square);
+        phase += PieceSquareTables.phase(piece.getPieceType());
+        listSlots[square] = pieceCounts[color];
+        pieceLists[color][pieceCounts[color]++] = square;
+    }
+
+    private void removePiece(int square) {
+        ChessPiece piece = squares[square];
+        if (piece != null) {
+            long mask = ~(1L << square);
+            pieceBitboards[piece.index()] &= mask;
+            colorBitboards[piece.getTeamColor().ordinal()] &= mask;
+            squares[square] = null;
+            zobrist ^= Zobrist.piece(piece.index(), square);
+            // fill the hole with the list's last entry
+            int color = piece.getTeamColor().ordinal();
+            materialSignatures[color] -= 1 << signatureShift(piece.getPieceType().ordinal());
+            pieceSquareScore -= PieceSquareTables.score(piece.index(), square);
+            phase -= PieceSquareTables.phase(piece.getPieceType());
+            int last = pieceLists[color][--pieceCounts[color]];
+            pieceLists[color][listSlots[square]] = last;
+            listSlots[last] = listSlots[square];
+        }
+    }
+
+    /**
+     * Moves the piece on from to the empty square to, keeping its piece list slot
+     */
+    private void movePiece(int from, int to) {
+        ChessPiece piece = squares[from];
+        long fromTo = (1L << from) | (1L << to);
+        pieceBitboards[piece.index()] ^= fromTo;
+        colorBitboards[piece.getTeamColor().ordinal()] ^= fromTo;
+        squares[from] = null;
+        squares[to] = piece;
+        zobrist ^= Zobrist.piece(piece.index(), from) ^ Zobrist.piece(piece.index(), to);
+        pieceSquareScore += PieceSquareTables.score(piece.index(), to) - PieceSquareTables.score(piece.index(), from);
+        int slot = listSlots[from];
+        pieceLists[piece.getTeamColor().ordinal()][slot] = to;
+        listSlots[to] = slot;
+    }
+
+    /**
+     * Swaps the piece on square for another of the same color, keeping its piece list slot
+     */
+    private void replacePiece(int square, ChessPiece piece) {
+        long bit = 1L << square;
+        pieceBitboards[squares[square].index()] &= ~bit;
+        pieceBitboards[piece.index()] |= bit;
+        zobrist ^= Zobrist.piece(squares[square].index(), square) ^ Zobrist.piece(piece.index(), square);
+        materialSignatures[piece.getTeamColor().ordinal()] += (1 << signatureShift(piece.getPieceType().ordinal()))
+                - (1 << signatureShift(squares[square].getPieceType().ordinal()));
+        pieceSquareScore += PieceSquareTables.score(piece.index(), square)
+                - PieceSquareTables.score(squares[square].index(), square);
+        phase += PieceSquareTables.phase(piece.getPieceType())
+                - PieceSquareTables.phase(squares[square].getPieceType());
+        squares[square] = piece;
+    }
+
+    private static void checkBounds(ChessPosition position) {
         if (position.getRow() <= 0 || position.getRow() > 8 || position.getColumn() <= 0 || position.getColumn() > 8) {
             throw new IndexOutOfBoundsException("Index out of bounds: cannot access: " + (position.getRow()) + ", " + (position.getColumn()));
         }
-        return chessBoard[(position.getColumn()) - 1][(position.getRow()) - 1];
     }
 
     /**
@@ -69,7 +426,9 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        chessBoard = new ChessPiece[8][8];
+        for (int square = 0; square < 64; square++) {
+            removePiece(square);
+        }
         resetPawns(1, ChessGame.TeamColor.WHITE);
         resetNonPawns(0, ChessGame.TeamColor.WHITE);
         resetPawns(6, ChessGame.TeamColor.BLACK);
@@ -78,48 +437,31 @@ public class ChessBoard {
 
     public void resetPawns(int row, ChessGame.TeamColor color) {
         for (int i = 0; i < 8; i++) {
-            chessBoard[i][row] = new ChessPiece(color, ChessPiece.PieceType.PAWN);
+            addPiece(ChessPosition.of(row + 1, i + 1), ChessPiece.of(color, ChessPiece.PieceType.PAWN));
         }
     }
 
     public void resetNonPawns(int row, ChessGame.TeamColor color) {
-        chessBoard[0][row] = new ChessPiece(color, ChessPiece.PieceType.ROOK);
-        chessBoard[1][row] = new ChessPiece(color, ChessPiece.PieceType.KNIGHT);
-        chessBoard[2][row] = new ChessPiece(color, ChessPiece.PieceType.BISHOP);
-        chessBoard[3][row] = new ChessPiece(color, ChessPiece.PieceType.QUEEN);
-        chessBoard[4][row] = new ChessPiece(color, ChessPiece.PieceType.KING);
-        chessBoard[5][row] = new ChessPiece(color, ChessPiece.PieceType.BISHOP);
-        chessBoard[6][row] = new ChessPiece(color, ChessPiece.PieceType.KNIGHT);
-        chessBoard[7][row] = new ChessPiece(color, ChessPiece.PieceType.ROOK);
-    }
-
-    public void updateColorPositionsAndKings() {
-        blackPositions = new ArrayList<>();
-        whitePositions = new ArrayList<>();
-
+        PieceType[] backRank = {PieceType.ROOK, PieceType.KNIGHT, PieceType.BISHOP, PieceType.QUEEN,
+                PieceType.KING, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK};
         for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (chessBoard[i][j] != null) {
-                    processPiece(chessBoard[i][j], i, j);
-                }
-            }
+            addPiece(ChessPosition.of(row + 1, i + 1), ChessPiece.of(color, backRank[i]));
         }
     }
 
-    private void processPiece(ChessPiece piece, int i, int j) {
-        ChessPosition position = new ChessPosition(j + 1, i + 1);
+    public void updateColorPositionsAndKings() {
+        blackPositions = positionsOf(TeamColor.BLACK);
+        whitePositions = positionsOf(TeamColor.WHITE);
+        blackKing = getKingPosition(TeamColor.BLACK);
+        whiteKing = getKingPosition(TeamColor.WHITE);
+    }
 
-        if (piece.getTeamColor() == TeamColor.WHITE) {
-            whitePositions.add(position);
-            if (piece.getPieceType() == PieceType.KING) {
-                whiteKing = position;
-            }
-        } else {
-            blackPositions.add(position);
-            if (piece.getPieceType() == PieceType.KING) {
-                blackKing = position;
-            }
+    private Collection<ChessPosition> positionsOf(TeamColor color) {
+        Collection<ChessPosition> positions = new ArrayList<>(getPieceCount(color));
+        for (int i = 0; i < getPieceCount(color); i++) {
+            positions.add(PackedMove.position(getPieceSquare(color, i)));
         }
+        return positions;
     }
 
     final static Map<PieceType, Character> TYPE_TO_CHAR_MAP = Map.of(
@@ -134,18 +476,18 @@ public class ChessBoard {
     @Override
     public String toString() {
         StringBuilder boardString = new StringBuilder();
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                if (getPiece(new ChessPosition(row, col)) == null) {
-                    boardString.append(" ");
-                } else {
-                    Character piece = getPiece(new ChessPosition(row, col)).getTeamColor() == ChessGame.TeamColor.WHITE
-                            ? Character.toUpperCase(TYPE_TO_CHAR_MAP.get(getPiece(new ChessPosition(row, col)).getPieceType()))
-                            : Character.toLowerCase(TYPE_TO_CHAR_MAP.get(getPiece(new ChessPosition(row, col)).getPieceType()));
-                    boardString.append(piece);
-                }
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = squares[square];
+            if (piece == null) {
+                boardString.append(" ");
+            } else {
+                char pieceChar = TYPE_TO_CHAR_MAP.get(piece.getPieceType());
+                boardString.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE
+                        ? Character.toUpperCase(pieceChar) : pieceChar);
+            }
+            if (square % 8 == 7) {
+                boardString.append("\n");
             }
-            boardString.append("\n");
         }
         return String.valueOf(boardString);
     }
@@ -159,11 +501,17 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Arrays.deepEquals(this.chessBoard, that.chessBoard);
+        // the color masks are unions of the piece masks, so comparing piece masks is enough
+        for (int i = 0; i < pieceBitboards.length; i++) {
+            if (pieceBitboards[i] != that.pieceBitboards[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(chessBoard);
+        return Long.hashCode(zobrist);
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,11 @@
 package chess;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -10,15 +14,92 @@ import java.util.Collection;
  * signature of the existing methods.
  */
 public class ChessGame {
+    // material signature bits for the piece types that can always force mate with help
+    private static final int HEAVY_MATERIAL = (0xF << ChessPiece.PieceType.QUEEN.ordinal() * 4)
+            | (0xF << ChessPiece.PieceType.ROOK.ordinal() * 4)
+            | (0xF << ChessPiece.PieceType.PAWN.ordinal() * 4);
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
 
     private TeamColor teamTurn;
     private ChessBoard board;
+    // castling rights, en passant square and halfmove clock, packed by GameState
+    private int state;
+    private int fullmoveNumber = 1;
+    // undo records for makeMove(int): the move, the piece it captured and the state before it, per ply
+    private transient int[] moveStack;
+    private transient ChessPiece[] capturedStack;
+    private transient int[] stateStack;
+    // repetition records, per ply: the key of the position the move was made
+    // from, the ply that position last occurred at, how many times it had
+    // occurred since the last irreversible move, and where that window began
+    private transient long[] keyStack;
+    private transient int[] previousStack;
+    private transient int[] repetitionStack;
+    private transient int[] windowStack;
+    private transient int windowStart;
+    private transient RepetitionTable positions;
+    private transient int ply;
+    private transient MoveList scratchMoves;
 
 
     public ChessGame() {
         teamTurn = TeamColor.WHITE;
         board = new ChessBoard();
         board.resetBoard();
+        state = GameState.ALL_CASTLING;
+    }
+
+    /**
+     * Copies another game's position and turn; the copy starts with no moves to unmake
+     */
+    public ChessGame(ChessGame other) {
+        teamTurn = other.teamTurn;
+        board = new ChessBoard(other.board);
+        state = other.state;
+        fullmoveNumber = other.fullmoveNumber;
+    }
+
+    /**
+     * Starts a game from a position; the game takes ownership of the board
+     */
+    ChessGame(ChessBoard board, TeamColor teamTurn, int state, int fullmoveNumber) {
+        this.board = board;
+        this.teamTurn = teamTurn;
+        this.state = state;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation, e.g.
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}.
+     * The halfmove clock and fullmove number may be left off.
+     *
+     * @throws IllegalArgumentException if the text is not a valid FEN record
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * Writes this game's position in Forsyth-Edwards Notation
+     *
+     * @throws IOException if out does
+     */
+    public void toFen(Appendable out) throws IOException {
+        Fen.write(this, out);
+    }
+
+    /**
+     * @return this game's position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        try {
+            Fen.write(this, fen);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return fen.toString();
     }
 
     /**
@@ -37,6 +118,57 @@ public class ChessGame {
         teamTurn = team;
     }
 
+    /**
+     * Gets the castling rights and en passant square packed by {@link GameState}
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of the current full move: 1 at the start, and one
+     * more after each of black's moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Gets the Zobrist key of the position: the board's piece placement, whose
+     * turn it is, the castling rights, and the en passant column when the team
+     * to move can actually capture there. Computed in constant time from the
+     * board's incrementally maintained key.
+     *
+     * @return a 64-bit key equal for identical positions
+     */
+    public long zobrist() {
+        return zobrist(board.zobrist(), teamTurn, state, board.getBitboard(teamTurn, ChessPiece.PieceType.PAWN));
+    }
+
+    /**
+     * Combines a board's placement key with the rest of a position's key
+     *
+     * @param pawnsToMove the pawns of the team to move; a double push only
+     *                    changes the position if one of them can capture en passant
+     */
+    static long zobrist(long boardKey, TeamColor teamTurn, int state, long pawnsToMove) {
+        long key = boardKey ^ (teamTurn == TeamColor.BLACK ? Zobrist.SIDE_TO_MOVE : 0);
+        key ^= Zobrist.castling(GameState.castlingRights(state));
+        int enPassant = GameState.enPassantSquare(state);
+        if (enPassant != GameState.NO_SQUARE
+                && (Bitboards.pawnAttacks(MoveGenerator.opponent(teamTurn), enPassant) & pawnsToMove) != 0) {
+            key ^= Zobrist.enPassant(enPassant);
+        }
+        return key;
+    }
+
+    /**
+     * Captures the current position as an immutable {@link BoardSnapshot}
+     */
+    public BoardSnapshot snapshot() {
+        return BoardSnapshot.of(this);
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -53,30 +185,35 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        ChessPiece piece = board.getPiece(startPosition);
-        if (piece == null) {
+        if (board.getPiece(startPosition) == null) {
             return null;
         }
-        Collection<ChessMove> validMoves = piece.pieceMoves(board, startPosition);
-
-//        remove moves that leave the king exposed/in check
-        Collection<ChessMove> toRemove = new ArrayList<>();
-        for (ChessMove move : validMoves) {
-            var newGame = new ChessGame();
-            newGame.setBoard(new ChessBoard(this.board));
-            newGame.makeTestMove(move, piece);
+        MoveList moves = new MoveList();
+        validMoves(startPosition, moves);
+        return moves.toChessMoves();
+    }
 
-            if (newGame.isInCheck(piece.getTeamColor())) {
-                toRemove.add(move);
-            }
+    /**
+     * Writes the valid moves for the piece at startPosition into a caller-owned
+     * buffer as {@link PackedMove packed ints}. Adds nothing if the square is empty.
+     */
+    public void validMoves(ChessPosition startPosition, MoveList moves) {
+        if (board.getPiece(startPosition) != null) {
+            addValidMoves(ChessBoard.squareOf(startPosition), moves);
         }
-        validMoves.removeAll(toRemove);
-        return validMoves;
     }
 
-    private void makeTestMove(ChessMove move, ChessPiece piece) {
-        board.addPiece(move.getStartPosition(), null);//empty where the piece was
-        board.addPiece(move.getEndPosition(), piece); //put the piece in its new position
+    private void addValidMoves(int square, MoveList moves) {
+        ChessPiece piece = board.getPiece(square);
+        MoveGenerator.generateLegalMoves(board, piece.getTeamColor(), 1L << square, state, moves);
+    }
+
+    /**
+     * Writes every legal move for the team whose turn it is into a caller-owned
+     * buffer as {@link PackedMove packed ints}
+     */
+    public void legalMoves(MoveList moves) {
+        MoveGenerator.generateLegalMoves(board, teamTurn, MoveGenerator.ALL_SQUARES, state, moves);
     }
 
     /**
@@ -86,28 +223,177 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        if (board.getPiece(move.getStartPosition()) == null) {
+        ChessPiece movingPiece = board.getPiece(move.getStartPosition());
+        if (movingPiece == null) {
             throw new InvalidMoveException("Move not valid. No piece there.");
         }
-        if (!validMoves(move.getStartPosition()).contains(move)) {
+        MoveList moves = new MoveList();
+        validMoves(move.getStartPosition(), moves);
+        int packedMove = moves.find(PackedMove.fromChessMove(move));
+        if (packedMove == PackedMove.NONE) {
             throw new InvalidMoveException("Move not valid");
         }
-        if (board.getPiece(move.getStartPosition()).getTeamColor() != teamTurn) {
+        if (movingPiece.getTeamColor() != teamTurn) {
             throw new InvalidMoveException("Move not valid. Not the teams turn.");
         }
-        ChessPiece movingPiece = board.getPiece(move.getStartPosition());
-        if (move.getPromotionPiece() != null) { // promote the piece if necessary
-            movingPiece = new ChessPiece(movingPiece.getTeamColor(), move.getPromotionPiece());
+        makeMove(packedMove);
+    }
+
+    /**
+     * Applies a packed move in place without checking that it is legal, then
+     * passes the turn to the other team. Undo it with {@link #unmakeMove()}.
+     *
+     * @param move a pseudo-legal {@link PackedMove} for the team whose turn it is
+     */
+    public void makeMove(int move) {
+        if (moveStack == null || ply == moveStack.length) {
+            growUndoStack();
         }
+        long key = zobrist();
+        int previous = positions.put(key, ply);
+        keyStack[ply] = key;
+        previousStack[ply] = previous;
+        repetitionStack[ply] = (previous >= windowStart) ? repetitionStack[previous] + 1 : 1;
+        windowStack[ply] = windowStart;
 
-        board.addPiece(move.getStartPosition(), null);//empty where the piece was
-        board.addPiece(move.getEndPosition(), movingPiece); //put the piece in its new position
+        boolean pawnMove = board.getPiece(PackedMove.from(move)).getPieceType() == ChessPiece.PieceType.PAWN;
+        moveStack[ply] = move;
+        stateStack[ply] = state;
+        capturedStack[ply] = board.makeMove(move);
+        state = GameState.afterMove(state, move, pawnMove);
+        ply++;
+        if (GameState.halfmoveClock(state) == 0
+                || GameState.castlingRights(state) != GameState.castlingRights(stateStack[ply - 1])) {
+            // no earlier position can come back after this move
+            windowStart = ply;
+        }
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
         //update whose turn it is///////////////////////////////////////////////////////////////////////////////
-        if (teamTurn == TeamColor.WHITE) {
-            teamTurn = TeamColor.BLACK;
-        } else {
-            teamTurn = TeamColor.WHITE;
+        teamTurn = MoveGenerator.opponent(teamTurn);
+    }
+
+    /**
+     * Reverts the last move applied by {@link #makeMove(int)}
+     */
+    public void unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        ply--;
+        board.unmakeMove(moveStack[ply], capturedStack[ply]);
+        capturedStack[ply] = null;
+        state = stateStack[ply];
+        positions.restore(keyStack[ply], previousStack[ply]);
+        windowStart = windowStack[ply];
+        teamTurn = MoveGenerator.opponent(teamTurn);
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    private void growUndoStack() {
+        int capacity = (moveStack == null) ? 64 : moveStack.length * 2;
+        moveStack = (moveStack == null) ? new int[capacity] : Arrays.copyOf(moveStack, capacity);
+        capturedStack = (capturedStack == null) ? new ChessPiece[capacity] : Arrays.copyOf(capturedStack, capacity);
+        stateStack = (stateStack == null) ? new int[capacity] : Arrays.copyOf(stateStack, capacity);
+        keyStack = (keyStack == null) ? new long[capacity] : Arrays.copyOf(keyStack, capacity);
+        previousStack = (previousStack == null) ? new int[capacity] : Arrays.copyOf(previousStack, capacity);
+        repetitionStack = (repetitionStack == null) ? new int[capacity] : Arrays.copyOf(repetitionStack, capacity);
+        windowStack = (windowStack == null) ? new int[capacity] : Arrays.copyOf(windowStack, capacity);
+        if (positions == null) {
+            positions = new RepetitionTable();
+        }
+    }
+
+    /**
+     * @return how many moves have been made since the game started or the board was set
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * @return the moves made since the game started or the board was set, oldest first
+     */
+    public List<ChessMove> getMoveHistory() {
+        List<ChessMove> history = new ArrayList<>(ply);
+        for (int i = 0; i < ply; i++) {
+            history.add(PackedMove.toChessMove(moveStack[i]));
+        }
+        return history;
+    }
+
+    /**
+     * @return the packed move made at the given ply, counting from 0
+     */
+    int moveAt(int ply) {
+        return moveStack[ply];
+    }
+
+    /**
+     * Counts how many times the current position has occurred, including now.
+     * Only positions since the last capture, pawn move or loss of castling
+     * rights are counted, since none before it can recur. Takes constant time:
+     * each ply records its position's previous occurrence.
+     *
+     * @return 1 for a position that has not occurred before
+     */
+    public int repetitionCount() {
+        if (positions == null) {
+            return 1;
         }
+        int previous = positions.get(zobrist());
+        return (previous >= windowStart) ? repetitionStack[previous] + 1 : 1;
+    }
+
+    /**
+     * @return true if the current position has occurred at least three times,
+     * so either player may claim a draw
+     */
+    public boolean isThreefoldRepetition() {
+        return repetitionCount() >= 3;
+    }
+
+    /**
+     * @return plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return GameState.halfmoveClock(state);
+    }
+
+    /**
+     * @return true if fifty moves by each team have passed without a capture
+     * or pawn move, so either player may claim a draw
+     */
+    public boolean isFiftyMoveRule() {
+        return getHalfmoveClock() >= 100;
+    }
+
+    /**
+     * Determines if neither team has the material left to checkmate: king
+     * against king, king and one knight or bishop against king, or kings with
+     * only bishops that all stand on the same color square. Decided from the
+     * board's material signatures and bishop bitboards without looking at any
+     * square.
+     *
+     * @return True if no sequence of moves can end in checkmate
+     */
+    public boolean isInsufficientMaterial() {
+        int white = board.getMaterialSignature(TeamColor.WHITE);
+        int black = board.getMaterialSignature(TeamColor.BLACK);
+        if (((white | black) & HEAVY_MATERIAL) != 0) {
+            return false;
+        }
+        int knights = ChessBoard.countOf(white, ChessPiece.PieceType.KNIGHT)
+                + ChessBoard.countOf(black, ChessPiece.PieceType.KNIGHT);
+        long bishops = board.getBitboard(TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                | board.getBitboard(TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        if (knights == 0) {
+            return (bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0;
+        }
+        return knights == 1 && bishops == 0;
     }
 
     /**
@@ -117,22 +403,37 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        board.updateColorPositionsAndKings();
-        ChessPosition kingPosition = (teamColor == TeamColor.WHITE) ? board.whiteKing : board.blackKing;
-        Collection<ChessPosition> opponentPositions = (teamColor == TeamColor.WHITE) ? board.blackPositions : board.whitePositions;
+        int kingSquare = board.getKingSquare(teamColor);
+        return kingSquare >= 0 && board.isSquareAttacked(kingSquare, MoveGenerator.opponent(teamColor));
+    }
 
-        for (ChessPosition position : opponentPositions) {
-            ChessPiece piece = board.getPiece(position);
-            Collection<ChessMove> pieceMoves = piece.pieceMoves(board, position);
+    /**
+     * The state of one team's position
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
 
-            // Check if any move of the piece can reach the king's position
-            for (ChessMove move : pieceMoves) {
-                if (move.getEndPosition().equals(kingPosition)) {
-                    return true; // King is in check
-                }
-            }
+    /**
+     * Works out whether the given team is in check and whether it has a legal
+     * move in one pass, stopping at the first legal move found
+     *
+     * @param teamColor which team to evaluate
+     * @return CHECKMATE or STALEMATE if the team has no legal move (depending on
+     * whether it is in check), otherwise CHECK or NORMAL
+     */
+    public GameStatus status(TeamColor teamColor) {
+        boolean inCheck = isInCheck(teamColor);
+        if (scratchMoves == null) {
+            scratchMoves = new MoveList();
         }
-        return false;
+        if (MoveGenerator.hasLegalMove(board, teamColor, state, scratchMoves)) {
+            return inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
+        }
+        return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
     }
 
     /**
@@ -142,58 +443,40 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        board.updateColorPositionsAndKings();
-        Collection<ChessPosition> teamPositions = (teamColor == TeamColor.BLACK) ? board.blackPositions : board.whitePositions;
-
-        for (ChessPosition position : teamPositions) {
-            ChessPiece piece = board.getPiece(position);
-            Collection<ChessMove> pieceMoves = validMoves(position);
-
-            // Check if any move of the piece can reach the king's position
-            for (ChessMove move : pieceMoves) {
-                var newGame = new ChessGame();
-                newGame.setBoard(new ChessBoard(this.board));
-                newGame.makeTestMove(move, piece);
-
-                if (!newGame.isInCheck(teamColor)) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return status(teamColor) == GameStatus.CHECKMATE;
     }
 
     /**
      * Determines if the given team is in stalemate, which here is defined as having
-     * no valid moves
+     * no valid moves while it is that team's turn
      *
      * @param teamColor which team to check for stalemate
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (teamColor.equals(teamTurn)) {
-            if (!isInCheck(teamColor)) {
-                board.updateColorPositionsAndKings();
-                Collection<ChessPosition> teamPositions = (teamColor == TeamColor.BLACK) ? board.blackPositions : board.whitePositions;
-                Collection<ChessMove> pieceMoves = new ArrayList<>();
-
-                for (ChessPosition position : teamPositions) {
-                    pieceMoves.addAll(validMoves(position));
-                }
-                return pieceMoves.isEmpty();
-            }
-        }
-        return false;
+        return teamColor == teamTurn && status(teamColor) == GameStatus.STALEMATE;
     }
 
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board. Castling is allowed for
+     * every king and rook on their starting squares, and no en passant capture
+     * is available.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        state = GameState.castlingRightsFor(board);
+        // undo records only make sense against the board they were made on
+        ply = 0;
+        windowStart = 0;
+        if (positions != null) {
+            positions.clear();
+        }
+        if (capturedStack != null) {
+            Arrays.fill(capturedStack, null);
+        }
     }
 
     /**
@@ -1,8 +1,6 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * Represents a single chess piece
@@ -11,17 +9,36 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPiece {
-    ChessGame.TeamColor pieceColor;
-    ChessPiece.PieceType type;
-    private final int[][] bishopDirections = {{1, 1}, {-1, 1}, {1, -1}, {-1, -1}};
-    private final int[][] rookDirections = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
-    private final int[][] knightDirections = {{1, 2}, {2, 1}, {-1, 2}, {-2, 1}, {1, -2}, {2, -1}, {-1, -2}, {-2, -1}};
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                ChessPiece piece = new ChessPiece(color, type);
+                PIECES[piece.index()] = piece;
+            }
+        }
+    }
+
+    final ChessGame.TeamColor pieceColor;
+    final ChessPiece.PieceType type;
+
+    // a queen has at most 27 moves
+    private static final int SINGLE_PIECE_CAPACITY = 32;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance of a piece. Pieces are immutable, so boards and
+     * move generation hand these out instead of allocating new ones.
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -48,6 +65,13 @@ public class ChessPiece {
         return type;
     }
 
+    /**
+     * @return this piece's slot in a board's per-piece arrays, color * 6 + type
+     */
+    int index() {
+        return pieceColor.ordinal() * 6 + type.ordinal();
+    }
+
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
@@ -56,138 +80,48 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        ChessPiece.PieceType type = board.getPiece(myPosition).getPieceType();
-        if (type.equals(PieceType.QUEEN)) {
-            moves = queenMoves(board, myPosition);
-        }
-        if (type.equals(PieceType.KING)) {
-            moves = kingMoves(board, myPosition);
-        }
-        if (type.equals(PieceType.BISHOP)) {
-            moves = bishopMoves(board, myPosition);
-        }
-        if (type.equals(PieceType.ROOK)) {
-            moves = rookMoves(board, myPosition);
-        }
-        if (type.equals(PieceType.KNIGHT)) {
-            moves = knightMoves(board, myPosition);
-        }
-        if (type.equals(PieceType.PAWN)) {
-            moves = pawnMoves(board, myPosition);
-        }
-        return moves;
+        MoveList moves = new MoveList(SINGLE_PIECE_CAPACITY);
+        pieceMoves(board, myPosition, moves);
+        return moves.toChessMoves();
     }
 
-    private Boolean outOfBounds(ChessPosition checkingPosition) {
-        return (checkingPosition.getRow() > 8 || checkingPosition.getColumn() > 8) ||
-                (checkingPosition.getRow() < 1 || checkingPosition.getColumn() < 1);
+    /**
+     * Writes the moves of the piece at myPosition into a caller-owned buffer as
+     * {@link PackedMove packed ints}; the allocation-free form of {@link #pieceMoves}
+     */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, MoveList moves) {
+        MoveGenerator.generatePieceMoves(board, ChessBoard.squareOf(myPosition), moves);
     }
 
-    private String checkSpace(ChessBoard board, ChessPosition myPosition, ChessPosition checkingPosition) {
-        if (outOfBounds(checkingPosition)) {
-            return "stop";
-        }
-        ChessPiece piece = board.getPiece(myPosition);
-        ChessPiece otherSpace = board.getPiece(checkingPosition);
-        if (otherSpace == null) {
-            return "empty";
-        }
-        if (otherSpace.getTeamColor().equals(piece.getTeamColor())) {
-            return "stop";
-        }
-        return "enemy";
-    }
-
-    private Collection<ChessMove> checkDirections(ChessBoard board, ChessPosition myPosition, int[][] directions, int howFar) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        for (int[] direction : directions) {
-            for (int i = 1; i <= howFar; i++) {
-                ChessPosition checkingPosition = new ChessPosition(
-                        myPosition.getRow() + (i * direction[0]), myPosition.getColumn() + (i * direction[1])
-                );
-                String checkSpaceResult = checkSpace(board, myPosition, checkingPosition);
-                if (checkSpaceResult.equals("stop")) {
-                    break;
-                } else if (checkSpaceResult.equals("empty")) {
-                    moves.add(new ChessMove(myPosition, checkingPosition, null));
-                } else {
-                    moves.add(new ChessMove(myPosition, checkingPosition, null));
-                    break;
-                }
-            }
-        }
-        return moves;
+    private Collection<ChessMove> movesAs(PieceType type, ChessBoard board, ChessPosition myPosition) {
+        MoveList moves = new MoveList(SINGLE_PIECE_CAPACITY);
+        ChessGame.TeamColor color = board.getPiece(myPosition).getTeamColor();
+        MoveGenerator.generatePieceMoves(board, ChessBoard.squareOf(myPosition), color, type, moves);
+        return moves.toChessMoves();
     }
 
     public Collection<ChessMove> queenMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = checkDirections(board, myPosition, bishopDirections, 8);
-        moves.addAll(checkDirections(board, myPosition, rookDirections, 8));
-        return moves;
+        return movesAs(PieceType.QUEEN, board, myPosition);
     }
 
     public Collection<ChessMove> kingMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = checkDirections(board, myPosition, bishopDirections, 1);
-        moves.addAll(checkDirections(board, myPosition, rookDirections, 1));
-        return moves;
+        return movesAs(PieceType.KING, board, myPosition);
     }
 
     public Collection<ChessMove> bishopMoves(ChessBoard board, ChessPosition myPosition) {
-        return checkDirections(board, myPosition, bishopDirections, 8);
+        return movesAs(PieceType.BISHOP, board, myPosition);
     }
 
     public Collection<ChessMove> rookMoves(ChessBoard board, ChessPosition myPosition) {
-        return checkDirections(board, myPosition, rookDirections, 8);
+        return movesAs(PieceType.ROOK, board, myPosition);
     }
 
     public Collection<ChessMove> knightMoves(ChessBoard board, ChessPosition myPosition) {
-        return checkDirections(board, myPosition, knightDirections, 1);
-    }
-
-    private Collection<ChessMove> checkPawnDirections(ChessBoard board, ChessPosition myPosition, int direction, int startingRow, int promotionRow) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        int[] pawnCaptureColumnDirections = {1, -1};
-        Collection<ChessPiece.PieceType> promotionTypes = new ArrayList<>();
-        ChessPosition checkingPosition = new ChessPosition(myPosition.getRow() + (direction), myPosition.getColumn());
-        if (myPosition.getRow() == promotionRow) {
-            promotionTypes.add(PieceType.QUEEN);
-            promotionTypes.add(PieceType.ROOK);
-            promotionTypes.add(PieceType.BISHOP);
-            promotionTypes.add(PieceType.KNIGHT);
-        } else {
-            promotionTypes.add(null);
-        }
-        if (checkSpace(board, myPosition, checkingPosition).equals("empty")) {
-            for (PieceType type : promotionTypes) {
-                moves.add(new ChessMove(myPosition, checkingPosition, type));
-            }
-            if (myPosition.getRow() == startingRow) {
-                checkingPosition = new ChessPosition(myPosition.getRow() + (2 * direction), myPosition.getColumn());
-                if (checkSpace(board, myPosition, checkingPosition).equals("empty")) {
-                    moves.add(new ChessMove(myPosition, checkingPosition));
-                }
-            }
-        }
-        for (int colDirection : pawnCaptureColumnDirections) {
-            checkingPosition = new ChessPosition(myPosition.getRow() + (direction), myPosition.getColumn() + colDirection);
-            if (checkSpace(board, myPosition, checkingPosition).equals("enemy")) {
-                for (PieceType type : promotionTypes) {
-                    moves.add(new ChessMove(myPosition, checkingPosition, type));
-                }
-            }
-        }
-        return moves;
+        return movesAs(PieceType.KNIGHT, board, myPosition);
     }
 
-
     public Collection<ChessMove> pawnMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves;
-        if (board.getPiece(myPosition).getTeamColor() == ChessGame.TeamColor.WHITE) {
-            moves = checkPawnDirections(board, myPosition, 1, 2, 7);
-        } else {
-            moves = checkPawnDirections(board, myPosition, -1, 7, 2);
-        }
-        return moves;
+        return movesAs(PieceType.PAWN, board, myPosition);
     }
 
     @Override
@@ -211,6 +145,6 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return index();
     }
 }
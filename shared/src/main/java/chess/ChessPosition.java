@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -9,6 +7,13 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPosition {
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
 
     private final int row;
     private final int col;
@@ -23,6 +28,23 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets a position, reusing the shared instance for squares on the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * Gets the shared position for a square index (see {@link ChessBoard#squareOf})
+     */
+    public static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     public int getRow() {
         return row;
     }
@@ -52,7 +74,8 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        // same value as Objects.hash(row, col), without boxing
+        return 31 * (31 + row) + col;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, e.g. the starting position
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * Both directions walk the text or the board once, one character at a time,
+ * and only touch the shared piece and position flyweights, so loading a
+ * position allocates just the game and its board.
+ */
+final class Fen {
+    // piece letter -> piece, indexed by character; null for anything else
+    private static final ChessPiece[] PIECE_BY_CHAR = new ChessPiece[128];
+    // ChessPiece.index() -> letter
+    private static final char[] CHAR_BY_PIECE = new char[12];
+
+    static {
+        char[] letters = {'k', 'q', 'b', 'n', 'r', 'p'};
+        for (PieceType type : PieceType.values()) {
+            char letter = letters[type.ordinal()];
+            ChessPiece white = ChessPiece.of(TeamColor.WHITE, type);
+            ChessPiece black = ChessPiece.of(TeamColor.BLACK, type);
+            PIECE_BY_CHAR[Character.toUpperCase(letter)] = white;
+            PIECE_BY_CHAR[letter] = black;
+            CHAR_BY_PIECE[white.index()] = Character.toUpperCase(letter);
+            CHAR_BY_PIECE[black.index()] = letter;
+        }
+    }
+
+    private Fen() {
+    }
+
+    /**
+     * Parses a FEN record. The halfmove clock and fullmove number may be left off.
+     *
+     * @throws IllegalArgumentException if the text is not a valid FEN record
+     */
+    static ChessGame parse(CharSequence fen) {
+        ChessBoard board = new ChessBoard();
+        int length = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        // placement, from a8 across each row down to h1
+        int row = 7;
+        int col = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw invalid(fen, "bad row length");
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                ChessPiece piece = (c < 128) ? PIECE_BY_CHAR[c] : null;
+                if (piece == null || col > 7) {
+                    throw invalid(fen, "bad placement character '" + c + "'");
+                }
+                board.addPiece(ChessPosition.of(row * 8 + col), piece);
+                col++;
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw invalid(fen, "placement does not cover the board");
+        }
+
+        i = skipSpaces(fen, i);
+        TeamColor teamTurn;
+        if (i < length && fen.charAt(i) == 'w') {
+            teamTurn = TeamColor.WHITE;
+        } else if (i < length && fen.charAt(i) == 'b') {
+            teamTurn = TeamColor.BLACK;
+        } else {
+            throw invalid(fen, "side to move must be w or b");
+        }
+        i = skipSpaces(fen, i + 1);
+
+        int rights = 0;
+        if (i < length && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                rights |= switch (fen.charAt(i)) {
+                    case 'K' -> GameState.WHITE_KINGSIDE;
+                    case 'Q' -> GameState.WHITE_QUEENSIDE;
+                    case 'k' -> GameState.BLACK_KINGSIDE;
+                    case 'q' -> GameState.BLACK_QUEENSIDE;
+                    default -> throw invalid(fen, "bad castling rights");
+                };
+            }
+        }
+        i = skipSpaces(fen, i);
+
+        int enPassant = GameState.NO_SQUARE;
+        if (i < length && fen.charAt(i) == '-') {
+            i++;
+        } else if (i + 1 < length && isFile(fen.charAt(i)) && (fen.charAt(i + 1) == '3' || fen.charAt(i + 1) == '6')) {
+            enPassant = (fen.charAt(i + 1) - '1') * 8 + (fen.charAt(i) - 'a');
+            i += 2;
+        } else {
+            throw invalid(fen, "bad en passant square");
+        }
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        i = skipSpaces(fen, i);
+        if (i < length) {
+            halfmoveClock = parseNumber(fen, i);
+            i = skipSpaces(fen, skipDigits(fen, i));
+            if (i < length) {
+                fullmoveNumber = Math.max(1, parseNumber(fen, i));
+                i = skipDigits(fen, i);
+            }
+        }
+        if (skipSpaces(fen, i) != length) {
+            throw invalid(fen, "unexpected trailing text");
+        }
+
+        int state = GameState.withCastlingRights(0, rights);
+        state = GameState.withEnPassantSquare(state, enPassant);
+        state = GameState.withHalfmoveClock(state, halfmoveClock);
+        return new ChessGame(board, teamTurn, state, fullmoveNumber);
+    }
+
+    /**
+     * Writes a game's position as a six-field FEN record
+     */
+    static void write(ChessGame game, Appendable out) throws IOException {
+        ChessBoard board = game.getBoard();
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = board.getPiece(row * 8 + col);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.append(CHAR_BY_PIECE[piece.index()]);
+            }
+            if (empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                out.append('/');
+            }
+        }
+
+        out.append(game.getTeamTurn() == TeamColor.WHITE ? " w " : " b ");
+        int state = game.getState();
+        int rights = GameState.castlingRights(state);
+        if (rights == 0) {
+            out.append('-');
+        } else {
+            appendIf(out, rights, GameState.WHITE_KINGSIDE, 'K');
+            appendIf(out, rights, GameState.WHITE_QUEENSIDE, 'Q');
+            appendIf(out, rights, GameState.BLACK_KINGSIDE, 'k');
+            appendIf(out, rights, GameState.BLACK_QUEENSIDE, 'q');
+        }
+
+        out.append(' ');
+        int enPassant = GameState.enPassantSquare(state);
+        if (enPassant == GameState.NO_SQUARE) {
+            out.append('-');
+        } else {
+            out.append((char) ('a' + (enPassant & 7))).append((char) ('1' + (enPassant >>> 3)));
+        }
+
+        out.append(' ');
+        appendNumber(out, GameState.halfmoveClock(state));
+        out.append(' ');
+        appendNumber(out, game.getFullmoveNumber());
+    }
+
+    private static void appendIf(Appendable out, int rights, int right, char letter) throws IOException {
+        if ((rights & right) != 0) {
+            out.append(letter);
+        }
+    }
+
+    // Appendable has no int overload, and String.valueOf would allocate
+    private static void appendNumber(Appendable out, int value) throws IOException {
+        int divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static int parseNumber(CharSequence fen, int start) {
+        int end = skipDigits(fen, start);
+        if (end == start || end - start > 9) {
+            throw invalid(fen, "move counters must be numbers");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (fen.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static int skipDigits(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) >= '0' && fen.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN (" + reason + "): " + fen);
+    }
+}
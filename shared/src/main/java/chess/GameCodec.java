@@ -0,0 +1,138 @@
+package chess;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Stores a game as its starting position plus one byte per move. Each byte
+ * is the move's index among the legal moves of the position it was played
+ * in, ordered by {@link PackedMove#withoutFlags}, which no position has more
+ * than 256 of. Decoding replays the moves, so the decoded game can unmake
+ * every one of them.
+ * <p>
+ * The first byte is {@link #STANDARD_START}, or {@link #FEN_START} followed
+ * by a length byte and the starting position's FEN in ASCII. A game from the
+ * standard start takes one byte more than its number of plies.
+ */
+public final class GameCodec {
+    public static final int STANDARD_START = 0;
+    public static final int FEN_START = 1;
+
+    private static final String STANDARD_FEN = new ChessGame().toFen();
+
+    private GameCodec() {
+    }
+
+    /**
+     * Encodes a game's starting position and every move in its history. The
+     * moves are unmade to find the starting position and then replayed, so
+     * the game ends up as it was.
+     *
+     * @throws IllegalArgumentException if a move in the history was not legal when made
+     */
+    public static byte[] encode(ChessGame game) {
+        int plies = game.getPly();
+        int[] moves = new int[plies];
+        for (int ply = 0; ply < plies; ply++) {
+            moves[ply] = game.moveAt(ply);
+        }
+        for (int ply = 0; ply < plies; ply++) {
+            game.unmakeMove();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(plies + 96);
+        String fen = game.toFen();
+        if (fen.equals(STANDARD_FEN)) {
+            out.write(STANDARD_START);
+        } else {
+            byte[] fenBytes = fen.getBytes(StandardCharsets.US_ASCII);
+            out.write(FEN_START);
+            out.write(fenBytes.length);
+            out.write(fenBytes, 0, fenBytes.length);
+        }
+
+        MoveList legal = new MoveList();
+        int illegalPly = -1;
+        for (int ply = 0; ply < plies; ply++) {
+            legal.clear();
+            game.legalMoves(legal);
+            int index = indexOf(legal, moves[ply]);
+            if (index < 0 && illegalPly < 0) {
+                illegalPly = ply;
+            }
+            out.write(index);
+            // replay even past an illegal move so the game is restored before throwing
+            game.makeMove(moves[ply]);
+        }
+        if (illegalPly >= 0) {
+            throw new IllegalArgumentException("Move " + (illegalPly + 1) + " is not legal: "
+                    + PackedMove.toString(moves[illegalPly]));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Rebuilds a game by replaying its moves from its starting position
+     *
+     * @throws IllegalArgumentException if the data is not a valid encoding
+     */
+    public static ChessGame decode(byte[] data) {
+        if (data.length == 0) {
+            throw new IllegalArgumentException("Empty game encoding");
+        }
+        int offset;
+        ChessGame game;
+        if (data[0] == STANDARD_START) {
+            game = new ChessGame();
+            offset = 1;
+        } else if (data[0] == FEN_START && data.length >= 2 && data.length >= 2 + (data[1] & 0xFF)) {
+            int length = data[1] & 0xFF;
+            game = ChessGame.fromFen(new String(data, 2, length, StandardCharsets.US_ASCII));
+            offset = 2 + length;
+        } else {
+            throw new IllegalArgumentException("Unknown game encoding header: " + data[0]);
+        }
+
+        MoveList legal = new MoveList();
+        int[] keys = new int[256];
+        for (int i = offset; i < data.length; i++) {
+            legal.clear();
+            game.legalMoves(legal);
+            int index = data[i] & 0xFF;
+            if (index >= legal.size()) {
+                throw new IllegalArgumentException("Move " + (i - offset + 1) + " has index " + index
+                        + " but only " + legal.size() + " moves are legal");
+            }
+            game.makeMove(legal.find(nthSmallestKey(legal, index, keys)));
+        }
+        return game;
+    }
+
+    /**
+     * @return how many legal moves order before move, or -1 if it is not among them
+     */
+    private static int indexOf(MoveList legal, int move) {
+        int key = PackedMove.withoutFlags(move);
+        int index = 0;
+        boolean found = false;
+        for (int i = 0; i < legal.size(); i++) {
+            int other = PackedMove.withoutFlags(legal.get(i));
+            if (other < key) {
+                index++;
+            } else if (other == key) {
+                found = true;
+            }
+        }
+        return found ? index : -1;
+    }
+
+    private static int nthSmallestKey(MoveList legal, int n, int[] keys) {
+        int size = legal.size();
+        for (int i = 0; i < size; i++) {
+            keys[i] = PackedMove.withoutFlags(legal.get(i));
+        }
+        Arrays.sort(keys, 0, size);
+        return keys[n];
+    }
+}
@@ -0,0 +1,118 @@
+package chess;
+
+/**
+ * Packs the parts of a game's state that the board alone does not show
+ * (castling rights, the en passant square and the halfmove clock) into a
+ * single int, so a move's undo record can restore them with one assignment.
+ * <p>
+ * Bits 0-3 are the castling rights flags below. Bits 4-10 hold the en passant
+ * square plus one (the square a pawn that just moved two squares passed
+ * over), or 0 if the last move was not a double pawn push. Bits 11-20 hold
+ * the halfmove clock: plies since the last capture or pawn move.
+ */
+public final class GameState {
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 1 << 1;
+    public static final int BLACK_KINGSIDE = 1 << 2;
+    public static final int BLACK_QUEENSIDE = 1 << 3;
+    public static final int ALL_CASTLING = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+
+    public static final int NO_SQUARE = -1;
+
+    private static final int CASTLING_MASK = 0xF;
+    private static final int EN_PASSANT_SHIFT = 4;
+    private static final int EN_PASSANT_MASK = 0x7F << EN_PASSANT_SHIFT;
+    private static final int CLOCK_SHIFT = 11;
+    private static final int MAX_CLOCK = 0x3FF;
+    private static final int CLOCK_MASK = MAX_CLOCK << CLOCK_SHIFT;
+
+    // the castling rights that survive a move touching each square
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            CASTLING_KEPT[square] = ALL_CASTLING;
+        }
+        CASTLING_KEPT[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] &= ~BLACK_KINGSIDE;
+    }
+
+    private GameState() {
+    }
+
+    public static int castlingRights(int state) {
+        return state & CASTLING_MASK;
+    }
+
+    public static int withCastlingRights(int state, int rights) {
+        return (state & ~CASTLING_MASK) | rights;
+    }
+
+    /**
+     * @return the en passant square, or {@link #NO_SQUARE}
+     */
+    public static int enPassantSquare(int state) {
+        return ((state & EN_PASSANT_MASK) >>> EN_PASSANT_SHIFT) - 1;
+    }
+
+    public static int withEnPassantSquare(int state, int square) {
+        return (state & ~EN_PASSANT_MASK) | ((square + 1) << EN_PASSANT_SHIFT);
+    }
+
+    /**
+     * @return plies since the last capture or pawn move
+     */
+    public static int halfmoveClock(int state) {
+        return (state & CLOCK_MASK) >>> CLOCK_SHIFT;
+    }
+
+    /**
+     * @param clock plies since the last capture or pawn move; values past
+     *              1023 are stored as 1023, which is already long past any draw rule
+     */
+    public static int withHalfmoveClock(int state, int clock) {
+        return (state & ~CLOCK_MASK) | (Math.min(clock, MAX_CLOCK) << CLOCK_SHIFT);
+    }
+
+    /**
+     * @param pawnMove whether the moving piece is a pawn
+     * @return the state after a move from one square to another: castling
+     * rights are lost once a king or rook leaves, or a rook is captured on,
+     * its starting square, the en passant square is set only by a double
+     * pawn push, and the halfmove clock restarts on a capture or pawn move
+     */
+    public static int afterMove(int state, int move, boolean pawnMove) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int rights = castlingRights(state) & CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        int enPassant = ((move & PackedMove.FLAG_DOUBLE_PUSH) != 0) ? (from + to) / 2 : NO_SQUARE;
+        int clock = (pawnMove || PackedMove.isCapture(move)) ? 0 : halfmoveClock(state) + 1;
+        return withHalfmoveClock(withEnPassantSquare(withCastlingRights(state, rights), enPassant), clock);
+    }
+
+    /**
+     * @return the castling rights a board's placement allows on its own: a
+     * right for each king and rook still on their starting squares
+     */
+    public static int castlingRightsFor(ChessBoard board) {
+        int rights = 0;
+        if (isPiece(board, 4, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+            rights |= isPiece(board, 7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK) ? WHITE_KINGSIDE : 0;
+            rights |= isPiece(board, 0, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK) ? WHITE_QUEENSIDE : 0;
+        }
+        if (isPiece(board, 60, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+            rights |= isPiece(board, 63, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK) ? BLACK_KINGSIDE : 0;
+            rights |= isPiece(board, 56, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK) ? BLACK_QUEENSIDE : 0;
+        }
+        return rights;
+    }
+
+    private static boolean isPiece(ChessBoard board, int square, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ChessPiece piece = board.getPiece(square);
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+}
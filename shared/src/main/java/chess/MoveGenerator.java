@@ -0,0 +1,314 @@
+package chess;
+
+import static chess.ChessGame.TeamColor;
+import static chess.ChessPiece.PieceType;
+
+/**
+ * Generates moves as {@link PackedMove packed ints} into a caller-owned
+ * {@link MoveList}.
+ * <p>
+ * The pseudo-legal methods may produce moves that leave the mover's king in
+ * check. The legal methods produce exactly the moves {@link ChessGame#validMoves}
+ * allows, without trying any of them: they first find the pieces giving check
+ * and the pieces pinned to their king, then restrict each piece's targets to
+ * the squares that block or capture a lone checker and to its pin line, and
+ * only let the king step onto squares the opponent does not attack.
+ */
+public final class MoveGenerator {
+    private static final PieceType[] PROMOTION_TYPES = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+    static final long ALL_SQUARES = -1L;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds every pseudo-legal move of the given color's pieces to moves
+     */
+    public static void generateMoves(ChessBoard board, TeamColor color, MoveList moves) {
+        long pieces = board.getOccupancy(color);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            generatePieceMoves(board, square, moves);
+        }
+    }
+
+    /**
+     * Adds the pseudo-legal moves of the piece on square to moves
+     */
+    public static void generatePieceMoves(ChessBoard board, int square, MoveList moves) {
+        ChessPiece piece = board.getPiece(square);
+        generatePieceMoves(board, square, piece.getTeamColor(), piece.getPieceType(), moves);
+    }
+
+    /**
+     * Adds the pseudo-legal moves a piece of the given color and type would have
+     * on square to moves
+     */
+    public static void generatePieceMoves(ChessBoard board, int square, TeamColor color, PieceType type, MoveList moves) {
+        addPieceMoves(board, square, color, type, ALL_SQUARES, moves);
+    }
+
+    /**
+     * Adds every legal move of the given color's pieces to moves, ignoring
+     * castling and en passant
+     */
+    public static void generateLegalMoves(ChessBoard board, TeamColor color, MoveList moves) {
+        generateLegalMoves(board, color, ALL_SQUARES, 0, moves);
+    }
+
+    /**
+     * Adds the legal moves of the given color's pieces standing on the squares
+     * in fromMask to moves
+     *
+     * @param state the {@link GameState} giving castling rights and the en
+     *              passant square; en passant is only generated for the color
+     *              whose pawns can reach that square's row
+     */
+    public static void generateLegalMoves(ChessBoard board, TeamColor color, long fromMask, int state, MoveList moves) {
+        addLegalMoves(board, color, fromMask, state, moves, false);
+    }
+
+    /**
+     * Determines if the given color has any legal move, stopping at the first
+     * piece found to have one
+     *
+     * @param scratch a caller-owned buffer used while searching; its contents are replaced
+     */
+    public static boolean hasLegalMove(ChessBoard board, TeamColor color, int state, MoveList scratch) {
+        scratch.clear();
+        addLegalMoves(board, color, ALL_SQUARES, state, scratch, true);
+        return !scratch.isEmpty();
+    }
+
+    private static void addLegalMoves(ChessBoard board, TeamColor color, long fromMask, int state, MoveList moves,
+                                      boolean stopAtFirst) {
+        TeamColor opponent = opponent(color);
+        int kingSquare = board.getKingSquare(color);
+        long pieces = board.getOccupancy(color) & fromMask;
+        int start = moves.size();
+        addEnPassant(board, color, pieces, GameState.enPassantSquare(state), kingSquare, moves);
+        if (kingSquare < 0) {
+            // without a king nothing can be left in check
+            while (pieces != 0 && !(stopAtFirst && moves.size() > start)) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                generatePieceMoves(board, square, moves);
+            }
+            return;
+        }
+
+        long occupied = board.getOccupancy();
+        long king = 1L << kingSquare;
+        long checkers = board.getAttackers(kingSquare, opponent, occupied);
+        if ((pieces & king) != 0) {
+            addKingMoves(board, kingSquare, color, moves);
+            if (checkers == 0) {
+                addCastling(board, kingSquare, color, GameState.castlingRights(state), moves);
+            }
+            pieces &= ~king;
+        }
+
+        if (Long.bitCount(checkers) > 1) {
+            return; // only the king can answer a double check
+        }
+        long checkMask = ALL_SQUARES;
+        if (checkers != 0) {
+            checkMask = checkers | Bitboards.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        }
+        long pinned = pinnedPieces(board, kingSquare, color, occupied);
+
+        while (pieces != 0 && !(stopAtFirst && moves.size() > start)) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            long allowed = checkMask;
+            if ((pinned & (1L << square)) != 0) {
+                allowed &= Bitboards.line(kingSquare, square);
+            }
+            if (allowed != 0) {
+                addPieceMoves(board, square, color, board.getPiece(square).getPieceType(), allowed, moves);
+            }
+        }
+    }
+
+    /**
+     * @return the given color's pieces that are the only piece between their
+     * king and an enemy slider on the same line
+     */
+    private static long pinnedPieces(ChessBoard board, int kingSquare, TeamColor color, long occupied) {
+        TeamColor opponent = opponent(color);
+        long queens = board.getBitboard(opponent, PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(kingSquare, 0) & (board.getBitboard(opponent, PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(kingSquare, 0) & (board.getBitboard(opponent, PieceType.BISHOP) | queens));
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboards.between(kingSquare, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.getOccupancy(color);
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Adds the en passant captures available to pawns in fromPieces. They are
+     * rare, and removing two pawns from one row can uncover a check no pin
+     * mask describes, so each one is tried on the board and kept only if it
+     * leaves the king safe.
+     */
+    private static void addEnPassant(ChessBoard board, TeamColor color, long fromPieces, int enPassantSquare,
+                                     int kingSquare, MoveList moves) {
+        if (enPassantSquare == GameState.NO_SQUARE || enPassantSquare / 8 != (color == TeamColor.WHITE ? 5 : 2)) {
+            return;
+        }
+        int victim = (color == TeamColor.WHITE) ? enPassantSquare - 8 : enPassantSquare + 8;
+        if ((board.getBitboard(opponent(color), PieceType.PAWN) & (1L << victim)) == 0
+                || board.getPiece(enPassantSquare) != null) {
+            return;
+        }
+        long capturers = Bitboards.pawnAttacks(opponent(color), enPassantSquare)
+                & board.getBitboard(color, PieceType.PAWN) & fromPieces;
+        while (capturers != 0) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            int move = PackedMove.of(from, enPassantSquare, PackedMove.FLAG_EN_PASSANT | PackedMove.FLAG_CAPTURE);
+            ChessPiece captured = board.makeMove(move);
+            boolean legal = kingSquare < 0 || !board.isSquareAttacked(kingSquare, opponent(color));
+            board.unmakeMove(move, captured);
+            if (legal) {
+                moves.add(move);
+            }
+        }
+    }
+
+    /**
+     * Adds the castling moves the rights allow for a king that is not in
+     * check: the king and rook must be on their starting squares with nothing
+     * between them, and the king must not pass over or land on an attacked square
+     */
+    private static void addCastling(ChessBoard board, int kingSquare, TeamColor color, int rights, MoveList moves) {
+        int home = (color == TeamColor.WHITE) ? 4 : 60;
+        if (kingSquare != home) {
+            return;
+        }
+        int kingside = (color == TeamColor.WHITE) ? GameState.WHITE_KINGSIDE : GameState.BLACK_KINGSIDE;
+        int queenside = (color == TeamColor.WHITE) ? GameState.WHITE_QUEENSIDE : GameState.BLACK_QUEENSIDE;
+        if ((rights & kingside) != 0) {
+            addCastle(board, home, home + 2, color, moves);
+        }
+        if ((rights & queenside) != 0) {
+            addCastle(board, home, home - 2, color, moves);
+        }
+    }
+
+    private static void addCastle(ChessBoard board, int kingFrom, int kingTo, TeamColor color, MoveList moves) {
+        int rookFrom = ChessBoard.castlingRookFrom(kingTo);
+        if ((board.getBitboard(color, PieceType.ROOK) & (1L << rookFrom)) == 0
+                || (Bitboards.between(kingFrom, rookFrom) & board.getOccupancy()) != 0) {
+            return;
+        }
+        TeamColor opponent = opponent(color);
+        int step = (kingTo > kingFrom) ? 1 : -1;
+        if (board.isSquareAttacked(kingFrom + step, opponent) || board.isSquareAttacked(kingTo, opponent)) {
+            return;
+        }
+        moves.add(PackedMove.of(kingFrom, kingTo, PackedMove.FLAG_CASTLE));
+    }
+
+    private static void addKingMoves(ChessBoard board, int kingSquare, TeamColor color, MoveList moves) {
+        TeamColor opponent = opponent(color);
+        // the king must not hide behind itself from a slider it is moving away from
+        long occupied = board.getOccupancy() & ~(1L << kingSquare);
+        long enemies = board.getOccupancy(opponent);
+        long targets = Bitboards.kingAttacks(kingSquare) & ~board.getOccupancy(color);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (board.getAttackers(to, opponent, occupied) == 0) {
+                moves.add(PackedMove.of(kingSquare, to, ((enemies >>> to) & 1) != 0 ? PackedMove.FLAG_CAPTURE : 0));
+            }
+        }
+    }
+
+    /**
+     * @return the squares a non-pawn piece of the given type on square attacks
+     */
+    public static long attacks(PieceType type, int square, long occupied) {
+        return switch (type) {
+            case KING -> Bitboards.kingAttacks(square);
+            case QUEEN -> Bitboards.queenAttacks(square, occupied);
+            case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+            case KNIGHT -> Bitboards.knightAttacks(square);
+            case ROOK -> Bitboards.rookAttacks(square, occupied);
+            case PAWN -> throw new IllegalArgumentException("pawn attacks depend on color");
+        };
+    }
+
+    private static void addPieceMoves(ChessBoard board, int square, TeamColor color, PieceType type, long allowed, MoveList moves) {
+        if (type == PieceType.PAWN) {
+            addPawnMoves(board, square, color, allowed, moves);
+            return;
+        }
+        long targets = attacks(type, square, board.getOccupancy()) & ~board.getOccupancy(color) & allowed;
+        addMoves(square, targets, board.getOccupancy(opponent(color)), moves);
+    }
+
+    private static void addPawnMoves(ChessBoard board, int square, TeamColor color, long allowed, MoveList moves) {
+        long empty = ~board.getOccupancy();
+        long enemies = board.getOccupancy(opponent(color));
+        long from = 1L << square;
+        int row = square / 8;
+
+        long captures = Bitboards.pawnAttacks(color, square) & enemies & allowed;
+        long push;
+        long doublePush = 0;
+        if (color == TeamColor.WHITE) {
+            push = (from << 8) & empty;
+            if (row == 1) {
+                doublePush = (push << 8) & empty;
+            }
+        } else {
+            push = (from >>> 8) & empty;
+            if (row == 6) {
+                doublePush = (push >>> 8) & empty;
+            }
+        }
+        push &= allowed;
+        doublePush &= allowed;
+
+        int promotionRow = (color == TeamColor.WHITE) ? 6 : 1;
+        if (row == promotionRow) {
+            addPromotions(square, push, 0, moves);
+            addPromotions(square, captures, PackedMove.FLAG_CAPTURE, moves);
+            return;
+        }
+        addMoves(square, push | captures, enemies, moves);
+        if (doublePush != 0) {
+            moves.add(PackedMove.of(square, Long.numberOfTrailingZeros(doublePush), PackedMove.FLAG_DOUBLE_PUSH));
+        }
+    }
+
+    private static void addMoves(int from, long targets, long enemies, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(PackedMove.of(from, to, ((enemies >>> to) & 1) != 0 ? PackedMove.FLAG_CAPTURE : 0));
+        }
+    }
+
+    private static void addPromotions(int from, long targets, int flags, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            for (PieceType promotion : PROMOTION_TYPES) {
+                moves.add(PackedMove.of(from, to, promotion, flags));
+            }
+        }
+    }
+
+    static TeamColor opponent(TeamColor color) {
+        return color == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,85 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A growable buffer of {@link PackedMove packed moves}. Callers own the list
+ * and {@link #clear()} it between uses, so generating moves into it allocates
+ * nothing once it has grown to its working size.
+ */
+public final class MoveList {
+    // no legal chess position has more than 218 moves
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            int[] grown = new int[Math.max(16, moves.length * 2)];
+            System.arraycopy(moves, 0, grown, 0, size);
+            moves = grown;
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from index size onward
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return the packed move with the given start and end squares and promotion
+     * (flags ignored), or {@link PackedMove#NONE} if the list has no such move
+     */
+    public int find(int moveWithoutFlags) {
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.withoutFlags(moves[i]) == moveWithoutFlags) {
+                return moves[i];
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    /**
+     * @return the moves converted to {@link ChessMove}s
+     */
+    public Collection<ChessMove> toChessMoves() {
+        Collection<ChessMove> chessMoves = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(PackedMove.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+}
@@ -0,0 +1,95 @@
+package chess;
+
+/**
+ * Encodes a move as a single int so move generation can fill a reusable
+ * {@link MoveList} instead of allocating a {@link ChessMove} per move.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square (square indexes
+ * as in {@link ChessBoard#squareOf}). Bits 12-14 hold the promotion piece as
+ * {@code PieceType.ordinal() + 1}, or 0 for no promotion, and the bits above
+ * that are flags describing the move.
+ */
+public final class PackedMove {
+    public static final int NONE = 0;
+
+    /**
+     * The move captures the piece standing on its end square
+     */
+    public static final int FLAG_CAPTURE = 1 << 15;
+    /**
+     * A pawn moving two squares from its starting row
+     */
+    public static final int FLAG_DOUBLE_PUSH = 1 << 16;
+    /**
+     * A pawn capturing en passant; also carries {@link #FLAG_CAPTURE}
+     */
+    public static final int FLAG_EN_PASSANT = 1 << 17;
+    /**
+     * A king castling; the move's squares are the king's, and the rook moves with it
+     */
+    public static final int FLAG_CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | (to << 6) | ((promotion == null ? 0 : promotion.ordinal() + 1) << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the promotion piece, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> 12) & 0x7;
+        return promotion == 0 ? null : TYPES[promotion - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (0x7 << 12)) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & FLAG_CAPTURE) != 0;
+    }
+
+    /**
+     * @return the move with its flags stripped, which is all a {@link ChessMove} carries
+     */
+    public static int withoutFlags(int move) {
+        return move & 0x7FFF;
+    }
+
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(square);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(position(from(move)), position(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the packed form of a move, without any flags
+     */
+    public static int fromChessMove(ChessMove move) {
+        return of(ChessBoard.squareOf(move.getStartPosition()), ChessBoard.squareOf(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static String toString(int move) {
+        return toChessMove(move).toString();
+    }
+}
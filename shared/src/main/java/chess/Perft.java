@@ -0,0 +1,218 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. The counts
+ * for well-known positions are published, so they check the move generator,
+ * and the time it takes gives a nodes-per-second figure for it.
+ * <p>
+ * Root moves can be split across a fork/join pool, and subtree counts can be
+ * cached by position key so transpositions are only counted once.
+ */
+public final class Perft {
+    private static final int DEFAULT_CACHE_BITS = 20;
+
+    private final boolean parallel;
+    private final Cache cache;
+
+    /**
+     * @param parallel count each root move's subtree on its own fork/join task
+     * @param hashed   cache subtree counts by position key
+     */
+    public Perft(boolean parallel, boolean hashed) {
+        this.parallel = parallel;
+        this.cache = hashed ? new Cache(DEFAULT_CACHE_BITS) : null;
+    }
+
+    /**
+     * Counts leaf nodes sequentially without a cache
+     */
+    public static long perft(ChessGame game, int depth) {
+        return new Perft(false, false).count(game, depth);
+    }
+
+    /**
+     * @return the number of leaf nodes depth plies below the game's position
+     */
+    public long count(ChessGame game, int depth) {
+        long total = 0;
+        for (long nodes : divide(game, depth).values()) {
+            total += nodes;
+        }
+        return depth == 0 ? 1 : total;
+    }
+
+    /**
+     * Counts the leaf nodes below each legal root move
+     *
+     * @return the count per root move, in generation order
+     */
+    public Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        if (depth == 0) {
+            return counts;
+        }
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+
+        if (parallel) {
+            List<RecursiveTask<Long>> tasks = new ArrayList<>(rootMoves.size());
+            for (int i = 0; i < rootMoves.size(); i++) {
+                ChessGame child = new ChessGame(game);
+                child.makeMove(rootMoves.get(i));
+                tasks.add(new SubtreeTask(child, depth - 1));
+            }
+            ForkJoinPool.commonPool().invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    invokeAll(tasks);
+                    return null;
+                }
+            });
+            for (int i = 0; i < rootMoves.size(); i++) {
+                counts.put(PackedMove.toChessMove(rootMoves.get(i)), tasks.get(i).join());
+            }
+            return counts;
+        }
+
+        MoveList[] buffers = newBuffers(depth);
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            game.makeMove(move);
+            counts.put(PackedMove.toChessMove(move), count(game, depth - 1, buffers));
+            game.unmakeMove();
+        }
+        return counts;
+    }
+
+    private long count(ChessGame game, int depth, MoveList[] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        long key = 0;
+        if (cache != null && depth > 1) {
+            key = game.zobrist() ^ (depth * 0x9E3779B97F4A7C15L);
+            long cached = cache.get(key);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+
+        MoveList moves = buffers[depth];
+        moves.clear();
+        game.legalMoves(moves);
+        if (depth == 1) {
+            return moves.size(); // bulk count the leaves
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            nodes += count(game, depth - 1, buffers);
+            game.unmakeMove();
+        }
+        if (cache != null) {
+            cache.put(key, nodes);
+        }
+        return nodes;
+    }
+
+    private static MoveList[] newBuffers(int depth) {
+        MoveList[] buffers = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            buffers[i] = new MoveList();
+        }
+        return buffers;
+    }
+
+    private final class SubtreeTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final ChessGame game;
+        private final int depth;
+
+        SubtreeTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            return count(game, depth, newBuffers(depth));
+        }
+    }
+
+    /**
+     * A fixed-size, always-replace table of subtree counts shared by every
+     * task without locking. Each slot stores key ^ count next to count, so a
+     * slot half-written by another thread fails the key check instead of
+     * returning a wrong count.
+     */
+    private static final class Cache {
+        private final long[] slots;
+        private final int mask;
+
+        Cache(int bits) {
+            slots = new long[2 << bits];
+            mask = (1 << bits) - 1;
+        }
+
+        long get(long key) {
+            int index = ((int) key & mask) << 1;
+            long count = slots[index + 1];
+            return (slots[index] ^ count) == key ? count : -1;
+        }
+
+        void put(long key, long count) {
+            int index = ((int) key & mask) << 1;
+            slots[index] = key ^ count;
+            slots[index + 1] = count;
+        }
+    }
+
+    /**
+     * Prints divide output and throughput for the starting position, or for
+     * the position given as a FEN record.
+     * Usage: {@code Perft depth [--parallel] [--hash] [--fen <fen>]}
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        boolean parallel = false;
+        boolean hashed = false;
+        ChessGame game = new ChessGame();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--parallel" -> parallel = true;
+                case "--hash" -> hashed = true;
+                case "--fen" -> {
+                    // the record's six fields may arrive as one argument or several
+                    StringBuilder fen = new StringBuilder();
+                    while (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                        fen.append(args[++i]).append(' ');
+                    }
+                    game = ChessGame.fromFen(fen);
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        Map<ChessMove, Long> counts = new Perft(parallel, hashed).divide(game, depth);
+        long elapsed = System.nanoTime() - start;
+
+        long total = 0;
+        for (Map.Entry<ChessMove, Long> entry : counts.entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        System.out.println();
+        System.out.println("Nodes: " + total);
+        System.out.printf("Time: %.3f s%n", elapsed / 1e9);
+        System.out.printf("Nodes/second: %.0f%n", total / (elapsed / 1e9));
+    }
+}
@@ -0,0 +1,118 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Maps position keys to the last ply each position occurred at, so a game can
+ * find a position's previous occurrence in constant time. Entries are put as
+ * moves are made and restored in reverse as they are unmade, so the table
+ * only ever holds the positions on the current line of play.
+ * <p>
+ * Open addressing with linear probing over parallel arrays; removal shifts
+ * later entries back instead of leaving tombstones, since search makes and
+ * unmakes far more moves than a game keeps.
+ */
+final class RepetitionTable {
+    private static final int NOT_FOUND = -1;
+
+    private long[] keys = new long[64];
+    // ply + 1, so 0 marks an empty slot
+    private int[] plies = new int[64];
+    private int size;
+
+    /**
+     * @return the ply the position last occurred at, or -1
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = index(key, mask); plies[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return plies[slot] - 1;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Records that the position occurred at ply
+     *
+     * @return the ply it last occurred at before, or -1; pass it back to {@link #restore}
+     */
+    int put(long key, int ply) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = index(key, mask);
+        for (; plies[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = plies[slot] - 1;
+                plies[slot] = ply + 1;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        plies[slot] = ply + 1;
+        size++;
+        return NOT_FOUND;
+    }
+
+    /**
+     * Undoes a {@link #put}, given the value it returned
+     */
+    void restore(long key, int previousPly) {
+        int mask = keys.length - 1;
+        int slot = index(key, mask);
+        while (keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (previousPly != NOT_FOUND) {
+            plies[slot] = previousPly + 1;
+        } else {
+            removeAt(slot, mask);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(plies, 0);
+        size = 0;
+    }
+
+    private void removeAt(int hole, int mask) {
+        for (int slot = (hole + 1) & mask; plies[slot] != 0; slot = (slot + 1) & mask) {
+            int home = index(keys[slot], mask);
+            // the entry can fill the hole unless its home lies cyclically in (hole, slot]
+            boolean stays = (hole <= slot) ? (home > hole && home <= slot) : (home > hole || home <= slot);
+            if (!stays) {
+                keys[hole] = keys[slot];
+                plies[hole] = plies[slot];
+                hole = slot;
+            }
+        }
+        plies[hole] = 0;
+        size--;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldPlies = plies;
+        keys = new long[oldKeys.length * 2];
+        plies = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldPlies[i] != 0) {
+                int slot = index(oldKeys[i], mask);
+                while (plies[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                plies[slot] = oldPlies[i];
+            }
+        }
+    }
+
+    private static int index(long key, int mask) {
+        // Zobrist keys are already uniformly random, so the low bits will do
+        return (int) key & mask;
+    }
+}
@@ -0,0 +1,222 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+
+/**
+ * Standard Algebraic Notation, e.g. "Nbd7", "exd5", "O-O-O", "e8=Q+".
+ * <p>
+ * Both directions work from the position's legal move list: a piece letter
+ * and target square pick out the candidate moves, and disambiguation only
+ * compares those candidates' start squares, so no piece's moves are
+ * generated twice. Callers that already hold the legal moves (a PGN reader
+ * or writer does, once per ply) can pass them in with the packed overloads.
+ */
+public final class San {
+    private static final String PIECE_LETTERS = "KQBNR";
+
+    private San() {
+    }
+
+    /**
+     * Reads a move in SAN for the team whose turn it is
+     *
+     * @throws InvalidMoveException if no legal move, or more than one, matches
+     */
+    public static ChessMove fromSan(ChessGame game, CharSequence san) throws InvalidMoveException {
+        MoveList legal = new MoveList();
+        game.legalMoves(legal);
+        int move = decode(game.getBoard(), legal, san);
+        if (move == PackedMove.NONE) {
+            throw new InvalidMoveException("Move not valid: " + san);
+        }
+        return PackedMove.toChessMove(move);
+    }
+
+    /**
+     * Writes a legal move for the team whose turn it is in SAN, with "+" or
+     * "#" if it gives check or mate
+     *
+     * @throws InvalidMoveException if the move is not legal in the game's position
+     */
+    public static String toSan(ChessGame game, ChessMove move) throws InvalidMoveException {
+        MoveList legal = new MoveList();
+        game.legalMoves(legal);
+        int packed = legal.find(PackedMove.fromChessMove(move));
+        if (packed == PackedMove.NONE) {
+            throw new InvalidMoveException("Move not valid: " + move);
+        }
+        StringBuilder san = new StringBuilder(8);
+        encode(game, legal, packed, san);
+        return san.toString();
+    }
+
+    /**
+     * Finds the legal move a SAN token names. Check, mate and annotation
+     * suffixes ("+", "#", "!", "?") are ignored, and "0-0" is read as "O-O".
+     *
+     * @param legal the legal moves of the side to move
+     * @return the matching move, or {@link PackedMove#NONE} if none or more than one matches
+     */
+    public static int decode(ChessBoard board, MoveList legal, CharSequence san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end >= 3 && isCastle(san, end)) {
+            int kingFile = (end >= 5) ? 2 : 6;
+            for (int i = 0; i < legal.size(); i++) {
+                int move = legal.get(i);
+                if ((move & PackedMove.FLAG_CASTLE) != 0 && (PackedMove.to(move) & 7) == kingFile) {
+                    return move;
+                }
+            }
+            return PackedMove.NONE;
+        }
+
+        PieceType promotion = null;
+        if (end > 0 && PIECE_LETTERS.indexOf(san.charAt(end - 1)) > 0) {
+            promotion = pieceType(san.charAt(end - 1));
+            end--;
+            if (end > 0 && san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end < 2 || !isFile(san.charAt(end - 2)) || !isRank(san.charAt(end - 1))) {
+            return PackedMove.NONE;
+        }
+        int to = (san.charAt(end - 1) - '1') * 8 + (san.charAt(end - 2) - 'a');
+
+        int start = 0;
+        PieceType type = PieceType.PAWN;
+        if (PIECE_LETTERS.indexOf(san.charAt(0)) >= 0) {
+            type = pieceType(san.charAt(0));
+            start = 1;
+        }
+        // what is left between the piece and the target square: a file, rank or both, and "x"
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (isFile(c)) {
+                fromFile = c - 'a';
+            } else if (isRank(c)) {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return PackedMove.NONE;
+            }
+        }
+
+        int found = PackedMove.NONE;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            int from = PackedMove.from(move);
+            if (PackedMove.to(move) == to
+                    && PackedMove.promotion(move) == promotion
+                    && board.getPiece(from).getPieceType() == type
+                    && (fromFile < 0 || (from & 7) == fromFile)
+                    && (fromRank < 0 || (from >>> 3) == fromRank)) {
+                if (found != PackedMove.NONE) {
+                    return PackedMove.NONE;
+                }
+                found = move;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Appends the SAN for a legal move, with "+" or "#" if it gives check or
+     * mate. The move is made and unmade on the game to see whether it checks,
+     * so the game is back where it was when this returns.
+     *
+     * @param legal the legal moves of the side to move, for disambiguation
+     */
+    public static void encode(ChessGame game, MoveList legal, int move, StringBuilder out) {
+        ChessBoard board = game.getBoard();
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        PieceType type = board.getPiece(from).getPieceType();
+        if ((move & PackedMove.FLAG_CASTLE) != 0) {
+            out.append((to & 7) == 6 ? "O-O" : "O-O-O");
+        } else if (type == PieceType.PAWN) {
+            if (PackedMove.isCapture(move)) {
+                out.append((char) ('a' + (from & 7))).append('x');
+            }
+            appendSquare(out, to);
+            if (PackedMove.isPromotion(move)) {
+                out.append('=').append(PIECE_LETTERS.charAt(PackedMove.promotion(move).ordinal()));
+            }
+        } else {
+            out.append(PIECE_LETTERS.charAt(type.ordinal()));
+            appendDisambiguation(board, legal, move, type, out);
+            if (PackedMove.isCapture(move)) {
+                out.append('x');
+            }
+            appendSquare(out, to);
+        }
+
+        game.makeMove(move);
+        ChessGame.GameStatus status = game.status(game.getTeamTurn());
+        game.unmakeMove();
+        if (status == ChessGame.GameStatus.CHECKMATE) {
+            out.append('#');
+        } else if (status == ChessGame.GameStatus.CHECK) {
+            out.append('+');
+        }
+    }
+
+    // the start file if it tells the candidates apart, else the rank, else both
+    private static void appendDisambiguation(ChessBoard board, MoveList legal, int move, PieceType type,
+                                             StringBuilder out) {
+        int from = PackedMove.from(move);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < legal.size(); i++) {
+            int other = legal.get(i);
+            int otherFrom = PackedMove.from(other);
+            if (otherFrom != from && PackedMove.to(other) == PackedMove.to(move)
+                    && board.getPiece(otherFrom).getPieceType() == type) {
+                ambiguous = true;
+                sameFile |= (otherFrom & 7) == (from & 7);
+                sameRank |= (otherFrom >>> 3) == (from >>> 3);
+            }
+        }
+        if (ambiguous && (!sameFile || sameRank)) {
+            out.append((char) ('a' + (from & 7)));
+        }
+        if (ambiguous && sameFile) {
+            out.append((char) ('1' + (from >>> 3)));
+        }
+    }
+
+    private static boolean isCastle(CharSequence san, int end) {
+        char o = san.charAt(0);
+        if (o != 'O' && o != '0') {
+            return false;
+        }
+        for (int i = 1; i < end; i++) {
+            char c = san.charAt(i);
+            if (c != ((i % 2 == 1) ? '-' : o)) {
+                return false;
+            }
+        }
+        return end == 3 || end == 5;
+    }
+
+    private static void appendSquare(StringBuilder out, int square) {
+        out.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+
+    private static PieceType pieceType(char letter) {
+        return PieceType.values()[PIECE_LETTERS.indexOf(letter)];
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c) {
+        return c >= '1' && c <= '8';
+    }
+}
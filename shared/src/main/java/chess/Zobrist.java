@@ -0,0 +1,77 @@
+package chess;
+
+/**
+ * Random 64-bit keys for Zobrist position hashing. A position's key is the
+ * XOR of the key for every (piece, square) pair on the board, plus
+ * {@link #SIDE_TO_MOVE} when black is to move, the key for the castling
+ * rights, and an en passant key when an en passant capture is available, so a
+ * move updates the key by XOR-ing out the keys it removes and XOR-ing in the
+ * keys it adds.
+ */
+public final class Zobrist {
+    /**
+     * Included in a game's key when it is black's turn
+     */
+    public static final long SIDE_TO_MOVE;
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        // fixed seed so keys, and anything stored by key, are the same on every JVM
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int piece = 0; piece < 12; piece++) {
+            for (int square = 0; square < 64; square++) {
+                seed = nextSeed(seed);
+                PIECE_SQUARE[piece][square] = mix(seed);
+            }
+        }
+        seed = nextSeed(seed);
+        SIDE_TO_MOVE = mix(seed);
+        // no castling rights hash to 0, so a game without them keys like its board
+        for (int rights = 1; rights < 16; rights++) {
+            seed = nextSeed(seed);
+            CASTLING[rights] = mix(seed);
+        }
+        for (int file = 0; file < 8; file++) {
+            seed = nextSeed(seed);
+            EN_PASSANT_FILE[file] = mix(seed);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key for the piece with the given {@link ChessPiece#index()} on square
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+
+    /**
+     * @return the key for a set of {@link GameState} castling rights
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @return the key for an en passant capture being available on a square's column
+     */
+    public static long enPassant(int square) {
+        return EN_PASSANT_FILE[square & 7];
+    }
+
+    private static long nextSeed(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,78 @@
+package engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.PieceSquareTables;
+
+/**
+ * Static evaluation: material and piece placement from the board's
+ * incrementally kept {@link ChessBoard#getPieceSquareScore() piece-square
+ * score}, plus mobility, tapered between middlegame and endgame weights by
+ * the board's phase.
+ * <p>
+ * Only mobility is computed per call, from the attack tables: one lookup and
+ * one bit count per knight, bishop, rook and queen.
+ */
+public final class Evaluation {
+    // indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+    // packed middlegame/endgame score per square a piece can move to
+    static final int[] MOBILITY = {
+            0,
+            PieceSquareTables.pack(1, 2),
+            PieceSquareTables.pack(4, 4),
+            PieceSquareTables.pack(4, 3),
+            PieceSquareTables.pack(2, 4),
+            0,
+    };
+
+    private Evaluation() {
+    }
+
+    /**
+     * @return the score for the team whose turn it is; positive is good for that team
+     */
+    public static int evaluate(ChessGame game) {
+        return evaluate(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * @param turn the team to score the position for
+     * @return the score for that team; positive is good for it
+     */
+    public static int evaluate(ChessBoard board, TeamColor turn) {
+        int packed = board.getPieceSquareScore()
+                + mobility(board, TeamColor.WHITE) - mobility(board, TeamColor.BLACK);
+        int score = PieceSquareTables.taper(packed, board.getPhase());
+        return (turn == TeamColor.WHITE) ? score : -score;
+    }
+
+    private static int mobility(ChessBoard board, TeamColor color) {
+        long occupied = board.getOccupancy();
+        long targets = ~board.getOccupancy(color);
+        int total = 0;
+        for (long knights = board.getBitboard(color, PieceType.KNIGHT); knights != 0; knights &= knights - 1) {
+            int square = Long.numberOfTrailingZeros(knights);
+            total += Long.bitCount(Bitboards.knightAttacks(square) & targets) * MOBILITY[PieceType.KNIGHT.ordinal()];
+        }
+        for (long bishops = board.getBitboard(color, PieceType.BISHOP); bishops != 0; bishops &= bishops - 1) {
+            int square = Long.numberOfTrailingZeros(bishops);
+            total += Long.bitCount(Bitboards.bishopAttacks(square, occupied) & targets)
+                    * MOBILITY[PieceType.BISHOP.ordinal()];
+        }
+        for (long rooks = board.getBitboard(color, PieceType.ROOK); rooks != 0; rooks &= rooks - 1) {
+            int square = Long.numberOfTrailingZeros(rooks);
+            total += Long.bitCount(Bitboards.rookAttacks(square, occupied) & targets)
+                    * MOBILITY[PieceType.ROOK.ordinal()];
+        }
+        for (long queens = board.getBitboard(color, PieceType.QUEEN); queens != 0; queens &= queens - 1) {
+            int square = Long.numberOfTrailingZeros(queens);
+            total += Long.bitCount(Bitboards.queenAttacks(square, occupied) & targets)
+                    * MOBILITY[PieceType.QUEEN.ordinal()];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,47 @@
+package engine;
+
+import chess.PackedMove;
+
+/**
+ * Butterfly history: for each side and each from/to square pair, how much
+ * that quiet move has been worth at cutoffs so far. Moves that refuted one
+ * position tend to refute its siblings and cousins, wherever they are in the
+ * tree, so the counts order quiet moves that have nothing else to go on.
+ */
+final class HistoryTable {
+    // every entry is halved when one passes this, so recent cutoffs keep counting
+    private static final int LIMIT = 1 << 20;
+
+    private final int[] counts = new int[2 * 64 * 64];
+
+    /**
+     * @param color the {@link chess.ChessGame.TeamColor} ordinal of the side moving
+     */
+    int get(int color, int move) {
+        return counts[index(color, move)];
+    }
+
+    /**
+     * Credits a quiet move that caused a cutoff; deeper cutoffs prune more, so count for more
+     */
+    void reward(int color, int move, int depth) {
+        int index = index(color, move);
+        counts[index] += depth * depth;
+        if (counts[index] > LIMIT) {
+            age();
+        }
+    }
+
+    /**
+     * Halves every count, so a new search favors what it learns itself
+     */
+    void age() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] >>= 1;
+        }
+    }
+
+    private static int index(int color, int move) {
+        return (color << 12) | (PackedMove.from(move) << 6) | PackedMove.to(move);
+    }
+}
@@ -0,0 +1,124 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveList;
+import chess.PackedMove;
+
+/**
+ * Hands out a position's legal moves best first, for one ply of a search.
+ * <p>
+ * Every move gets a score when the position is set up: the hash move first,
+ * then captures and promotions by MVV-LVA (most valuable victim, then least
+ * valuable attacker), then the ply's two killer moves (quiet moves that cut
+ * off a sibling position), then the remaining quiet moves by their butterfly
+ * history, which counts how often a from/to pair has caused cutoffs anywhere
+ * in the tree. {@link #next()} then picks the best remaining move with one
+ * pass of selection sort, so when the first move or two cut off, the rest are
+ * never sorted.
+ * <p>
+ * A picker owns its buffers and is reused for every position at its ply, so
+ * picking allocates nothing.
+ */
+final class MovePicker {
+    private static final int HASH_SCORE = Integer.MAX_VALUE;
+    private static final int CAPTURE_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28;
+    private static final int PAWN_VALUE = Evaluation.PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+
+    private final MoveList moves = new MoveList();
+    private final int[] scores = new int[256];
+    private final HistoryTable history;
+    private int index;
+
+    /**
+     * @param history the search's quiet-move history, shared by every ply
+     */
+    MovePicker(HistoryTable history) {
+        this.history = history;
+    }
+
+    /**
+     * Generates and scores the legal moves of the game's current position
+     *
+     * @param hashMove     tried first, or {@link PackedMove#NONE}; compared without flags
+     * @param killers      the ply's killer moves, {@link PackedMove#NONE} where empty
+     * @param capturesOnly keep only captures and promotions
+     */
+    void reset(ChessGame game, int hashMove, int[] killers, boolean capturesOnly) {
+        moves.clear();
+        game.legalMoves(moves);
+        index = 0;
+        ChessBoard board = game.getBoard();
+        int color = game.getTeamTurn().ordinal();
+        int hash = PackedMove.withoutFlags(hashMove);
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            boolean tactical = PackedMove.isCapture(move) || PackedMove.isPromotion(move);
+            if (capturesOnly && !tactical) {
+                continue;
+            }
+            int score;
+            int plain = PackedMove.withoutFlags(move);
+            if (hashMove != PackedMove.NONE && plain == hash) {
+                score = HASH_SCORE;
+            } else if (tactical) {
+                score = CAPTURE_SCORE + captureScore(board, move);
+            } else if (plain == killers[0]) {
+                score = KILLER_SCORE + 1;
+            } else if (plain == killers[1]) {
+                score = KILLER_SCORE;
+            } else {
+                score = history.get(color, move);
+            }
+            moves.set(kept, move);
+            scores[kept++] = score;
+        }
+        moves.truncate(kept);
+    }
+
+    /**
+     * @return how many moves the picker holds, after any filtering
+     */
+    int size() {
+        return moves.size();
+    }
+
+    /**
+     * @return the best move not yet handed out, or {@link PackedMove#NONE}
+     * once all have been
+     */
+    int next() {
+        int size = moves.size();
+        if (index >= size) {
+            return PackedMove.NONE;
+        }
+        int best = index;
+        for (int i = index + 1; i < size; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        moves.set(best, moves.get(index));
+        scores[best] = scores[index];
+        index++;
+        return move;
+    }
+
+    private static int captureScore(ChessBoard board, int move) {
+        int gain = 0;
+        if (PackedMove.isCapture(move)) {
+            ChessPiece victim = board.getPiece(PackedMove.to(move));
+            // an en passant capture lands on an empty square
+            gain = (victim == null) ? PAWN_VALUE : Evaluation.PIECE_VALUES[victim.getPieceType().ordinal()];
+        }
+        if (PackedMove.isPromotion(move)) {
+            gain += Evaluation.PIECE_VALUES[PackedMove.promotion(move).ordinal()];
+        }
+        int attacker = Evaluation.PIECE_VALUES[board.getPiece(PackedMove.from(move)).getPieceType().ordinal()];
+        return gain * 16 - attacker / 100;
+    }
+}
@@ -0,0 +1,168 @@
+package engine;
+
+import chess.ChessGame;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Searches one position on several threads that share a
+ * {@link TranspositionTable} and nothing else (Lazy SMP).
+ * <p>
+ * The calling thread runs an ordinary {@link Search} on the game it was given,
+ * and its result is the one returned. Helper threads search their own copies
+ * of the position with the same limits, every other one starting a ply
+ * deeper so they are not all working on the same depth at once. They only
+ * help by filling the table: the main search finds their results there and
+ * cuts off or orders moves with them. When the main search finishes, the
+ * helpers are stopped, and their nodes are added to the reported count.
+ * <p>
+ * The helpers' copies do not carry the game's move history, so they may
+ * misjudge a repetition of a position played before the search started; the
+ * main search does not.
+ */
+public final class ParallelSearch {
+    private static final int DEFAULT_TABLE_MEGABYTES = 64;
+
+    private final TranspositionTable table;
+    private final Search main;
+    private final Search[] helpers;
+
+    /**
+     * @param threads how many threads to search on, including the caller's
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param threads how many threads to search on, including the caller's
+     * @param table   shared by all of them, and kept between searches
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread: " + threads);
+        }
+        this.table = table;
+        main = new Search(table);
+        helpers = new Search[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(table);
+        }
+    }
+
+    public int threads() {
+        return helpers.length + 1;
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible; it returns the
+     * result of the last depth the main search finished
+     */
+    public void stop() {
+        main.stop();
+    }
+
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, null);
+    }
+
+    /**
+     * Searches the position for the team whose turn it is, as
+     * {@link Search#search(ChessGame, SearchLimits, Consumer)} does
+     *
+     * @param onIteration called with the main search's result of each
+     *                    finished depth, or null
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        table.newSearch();
+        AtomicBoolean cancel = new AtomicBoolean();
+        AtomicLong helperNodes = new AtomicLong();
+        // helpers stop with the main search, not on their own node budget
+        SearchLimits helperLimits = new SearchLimits(limits.depth(), 0, limits.timeMillis());
+
+        Thread[] threads = new Thread[helpers.length];
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = helpers[i];
+            ChessGame copy = new ChessGame(game);
+            int firstDepth = 1 + (i + 1) % 2;
+            threads[i] = new Thread(() -> {
+                SearchResult result = helper.run(copy, helperLimits, null, firstDepth, cancel);
+                helperNodes.addAndGet(result.nodes());
+            }, "search-helper-" + (i + 1));
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        SearchResult result;
+        try {
+            result = main.run(game, limits, onIteration, 1, null);
+        } finally {
+            cancel.set(true);
+            joinAll(threads);
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(),
+                result.nodes() + helperNodes.get(), result.elapsedNanos(), result.principalVariation());
+    }
+
+    private static void joinAll(Thread[] threads) {
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    // helpers are already cancelled and finish quickly; keep waiting
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reports how the search scales: searches a position to a fixed depth with
+     * 1, 2, 4, ... threads, each with a fresh table, and prints the time to
+     * depth and the speedup over one thread.
+     * <p>
+     * Usage: {@code ParallelSearch depth [maxThreads] [--fen <fen>]}
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        ChessGame game = new ChessGame();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--fen")) {
+                // the record's six fields may arrive as one argument or several
+                StringBuilder fen = new StringBuilder();
+                while (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    fen.append(args[++i]).append(' ');
+                }
+                game = ChessGame.fromFen(fen);
+            } else if (i == 1) {
+                maxThreads = Integer.parseInt(args[i]);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        // warm up the JIT so the one-thread baseline is not penalized
+        new Search().search(new ChessGame(game), SearchLimits.depth(Math.min(depth, 6)));
+
+        System.out.printf("%7s %6s %10s %12s %12s %8s%n", "threads", "depth", "ms", "nodes", "nps", "speedup");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            SearchResult result = new ParallelSearch(threads).search(game, SearchLimits.depth(depth));
+            double millis = result.elapsedNanos() / 1e6;
+            if (threads == 1) {
+                baseline = millis;
+            }
+            System.out.printf("%7d %6d %10.0f %12d %12d %7.2fx  %s%n", threads, result.depth(), millis,
+                    result.nodes(), result.nodesPerSecond(), baseline / millis, result.bestMove());
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Picks a move by negamax alpha-beta search with iterative deepening.
+ * <p>
+ * Each iteration searches one ply deeper than the last, trying the previous
+ * iteration's principal variation first, so the deeper search finds good
+ * moves early and cuts more. After the first move at a node, the rest are
+ * searched with a null window (principal variation search) and only
+ * re-searched with the full window if one turns out better. Leaves are
+ * extended with a captures-only quiescence search so the evaluation is never
+ * taken in the middle of an exchange.
+ * <p>
+ * Moves are handed out best first by a {@link MovePicker}, which also uses
+ * the killer moves and quiet-move history this search collects from earlier
+ * cutoffs.
+ * <p>
+ * Results are kept in a {@link TranspositionTable}: its best move is tried
+ * first when a position comes up again, and a stored result that is deep
+ * enough ends the search of that position outright (except on the
+ * principal variation, so the reported line stays complete).
+ * <p>
+ * A search runs on the caller's game with make/unmake and leaves it as it
+ * was. One Search object must not be used by two threads at once, but
+ * {@link #stop()} may be called from any thread.
+ */
+public final class Search {
+    public static final int MATE = 100_000;
+    public static final int MAX_DEPTH = 64;
+    static final int MAX_PLY = 128;
+    private static final int INFINITY = MATE + 1;
+    // the clock is only read every this many nodes
+    private static final int CHECK_INTERVAL_MASK = 1023;
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final HistoryTable history = new HistoryTable();
+    // two quiet moves per ply that caused cutoffs, most recent first
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    // triangular principal variation table: pv[ply] holds the best line from ply on
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private int[] previousPv = new int[0];
+    // true while the node being entered was reached by previousPv's moves alone
+    private boolean followPv;
+    private final TranspositionTable table;
+
+    private ChessGame game;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private int completedDepth;
+    private int rootScore;
+    private boolean aborted;
+    private volatile boolean stopped;
+    // set by a parallel search to stop a helper; null when searching alone
+    private AtomicBoolean cancel;
+
+    public Search() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param table where results are kept between positions and between searches
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker(history);
+        }
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible; it returns the
+     * result of the last depth it finished. A stop that arrives before the
+     * search gets going is kept and ends it right after its first root move,
+     * so there is no window in which a stop is lost.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, null);
+    }
+
+    /**
+     * Searches the position for the team whose turn it is. Whatever the
+     * limits, at least one root move is searched, so there is always a move
+     * if the team has one.
+     *
+     * @param onIteration called with the result of each finished depth, or null
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        table.newSearch();
+        return run(game, limits, onIteration, 1, null);
+    }
+
+    /**
+     * Runs iterative deepening from firstDepth, without starting a new table
+     * generation
+     *
+     * @param cancel stops the search once set, even before any root move has
+     *               been searched; null for a search that must return a move
+     */
+    SearchResult run(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration, int firstDepth,
+                     AtomicBoolean cancel) {
+        this.game = game;
+        this.cancel = cancel;
+        long start = System.nanoTime();
+        nodes = 0;
+        nodeLimit = (limits.nodes() > 0) ? limits.nodes() : Long.MAX_VALUE;
+        deadline = (limits.timeMillis() > 0) ? start + limits.timeMillis() * 1_000_000L : Long.MAX_VALUE;
+        int maxDepth = (limits.depth() > 0) ? Math.min(limits.depth(), MAX_DEPTH) : MAX_DEPTH;
+        completedDepth = 0;
+        aborted = false;
+        previousPv = new int[0];
+        history.age();
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, PackedMove.NONE);
+        }
+
+        SearchResult result = new SearchResult(null, 0, 0, 0, 0, List.of());
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            followPv = true;
+            int score = search(depth, -INFINITY, INFINITY, 0);
+            if (aborted) {
+                if (completedDepth == 0) {
+                    // cut off in the first iteration: the best root move so far beats no move
+                    result = new SearchResult(PackedMove.toChessMove(pv[0][0]), rootScore, 0, nodes,
+                            System.nanoTime() - start, toChessMoves(Arrays.copyOf(pv[0], pvLength[0])));
+                }
+                break;
+            }
+            completedDepth = depth;
+            previousPv = Arrays.copyOf(pv[0], pvLength[0]);
+            result = new SearchResult(previousPv.length > 0 ? PackedMove.toChessMove(previousPv[0]) : null,
+                    score, depth, nodes, System.nanoTime() - start, toChessMoves(previousPv));
+            if (onIteration != null) {
+                onIteration.accept(result);
+            }
+            // no legal move, or a forced mate within the depth searched, which deeper search can't improve on
+            if (previousPv.length == 0 || (Math.abs(score) > MATE - MAX_PLY && MATE - Math.abs(score) <= depth)) {
+                break;
+            }
+        }
+        this.game = null;
+        this.cancel = null;
+        // cleared here rather than at the start, so a stop sent while the search was starting still counts
+        stopped = false;
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes,
+                System.nanoTime() - start, result.principalVariation());
+    }
+
+    private int search(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        boolean onPv = followPv && ply < previousPv.length;
+        followPv = false;
+        if (ply > 0 && isDraw()) {
+            return 0;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiescence(alpha, beta, ply);
+        }
+        if (shouldAbort()) {
+            return 0;
+        }
+        nodes++;
+
+        long key = game.zobrist();
+        long entry = table.probe(key);
+        int hashMove = onPv ? previousPv[ply] : PackedMove.NONE;
+        if (entry != TranspositionTable.MISS) {
+            // on the previous principal variation, its move comes first whatever the table holds
+            if (hashMove == PackedMove.NONE) {
+                hashMove = TranspositionTable.move(entry);
+            }
+            boolean pvNode = beta - alpha > 1;
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.reset(game, hashMove, killers[ply], false);
+        if (picker.size() == 0) {
+            return game.isInCheck(game.getTeamTurn()) ? -MATE + ply : 0;
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        boolean first = true;
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            game.makeMove(move);
+            boolean childOnPv = onPv && PackedMove.withoutFlags(move) == PackedMove.withoutFlags(previousPv[ply]);
+            int score;
+            if (first) {
+                first = false;
+                followPv = childOnPv;
+                score = -search(depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                followPv = childOnPv;
+                score = -search(depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta) {
+                    followPv = childOnPv;
+                    score = -search(depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            game.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (ply == 0) {
+                        rootScore = score;
+                    }
+                    if (alpha >= beta) {
+                        if (!PackedMove.isCapture(move) && !PackedMove.isPromotion(move)) {
+                            rememberCutoff(move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = (best >= beta) ? TranspositionTable.LOWER_BOUND
+                : (best > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        // when every move failed low, the best of them is no better a guess than any other
+        int storedMove = (bound == TranspositionTable.UPPER_BOUND)
+                ? PackedMove.NONE : PackedMove.withoutFlags(bestMove);
+        table.store(key, storedMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet. The
+     * side to move may also "stand pat" on the static evaluation, since it is
+     * never forced to capture. In check, every evasion is searched instead.
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (shouldAbort()) {
+            return 0;
+        }
+        nodes++;
+        if (ply >= MAX_PLY) {
+            return Evaluation.evaluate(game);
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = Evaluation.evaluate(game);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.reset(game, PackedMove.NONE, killers[ply], !inCheck);
+        if (inCheck && picker.size() == 0) {
+            return -MATE + ply;
+        }
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            game.makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            game.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Records a quiet move that caused a cutoff, as a killer for this ply and
+     * in the history
+     */
+    private void rememberCutoff(int move, int depth, int ply) {
+        int plain = PackedMove.withoutFlags(move);
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != plain) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = plain;
+        }
+        history.reward(game.getTeamTurn().ordinal(), move, depth);
+    }
+
+    // mate scores count plies from the root; the table stores them counted from the position instead
+    private static int toTable(int score, int ply) {
+        if (score > MATE - MAX_PLY) {
+            return score + ply;
+        }
+        return (score < -MATE + MAX_PLY) ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > MATE - MAX_PLY) {
+            return score - ply;
+        }
+        return (score < -MATE + MAX_PLY) ? score + ply : score;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][0] = move;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    // repetitions count as draws the second time, since the side that repeated can always repeat again
+    private boolean isDraw() {
+        return game.repetitionCount() >= 2 || game.isFiftyMoveRule() || game.isInsufficientMaterial();
+    }
+
+    private boolean shouldAbort() {
+        // keep going until the root has at least one searched move to return
+        if (aborted || (cancel == null && completedDepth == 0 && pvLength[0] == 0)) {
+            return aborted;
+        }
+        if (stopped || (cancel != null && cancel.get()) || nodes >= nodeLimit
+                || ((nodes & CHECK_INTERVAL_MASK) == 0 && System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private static List<ChessMove> toChessMoves(int[] moves) {
+        List<ChessMove> line = new ArrayList<>(moves.length);
+        for (int move : moves) {
+            line.add(PackedMove.toChessMove(move));
+        }
+        return line;
+    }
+}
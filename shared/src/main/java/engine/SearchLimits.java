@@ -0,0 +1,21 @@
+package engine;
+
+/**
+ * When a search stops: after finishing depth plies, after visiting nodes
+ * positions, or after timeMillis, whichever comes first. A limit of zero or
+ * less is no limit; depth is always capped at {@link Search#MAX_DEPTH}.
+ */
+public record SearchLimits(int depth, long nodes, long timeMillis) {
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, 0, timeMillis);
+    }
+}
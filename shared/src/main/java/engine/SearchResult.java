@@ -0,0 +1,31 @@
+package engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search, or of one iteration of it
+ *
+ * @param bestMove           the move to play, or null if the side to move has none
+ * @param score              centipawns for the side to move; mates are
+ *                           reported as {@link Search#MATE} minus the plies to mate
+ * @param depth              the last depth searched to completion
+ * @param nodes              positions visited, including quiescence search
+ * @param elapsedNanos       wall time spent
+ * @param principalVariation the best line found, starting with bestMove
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long elapsedNanos,
+                           List<ChessMove> principalVariation) {
+
+    public long nodesPerSecond() {
+        return (elapsedNanos > 0) ? nodes * 1_000_000_000L / elapsedNanos : 0;
+    }
+
+    /**
+     * @return true if the score is a forced mate, for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) > Search.MATE - Search.MAX_PLY;
+    }
+}
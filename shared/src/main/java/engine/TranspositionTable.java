@@ -0,0 +1,206 @@
+package engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A fixed-size hash table of search results, shared by any number of
+ * searching threads without locks.
+ * <p>
+ * The table lives in direct (off-heap) buffers, so even gigabyte tables add
+ * no objects for the garbage collector to trace. Entries are 16 bytes: the
+ * entry's data word and the position key XOR-ed with it. The two words are
+ * written separately, so a reader racing a writer can see one word of each
+ * entry; the XOR check then fails and the read is treated as a miss, which
+ * is what makes the table safe without locks.
+ * <p>
+ * Entries are grouped into buckets of four (one 64-byte cache line). A store
+ * replaces the entry for the same position if there is one, otherwise the
+ * entry with the lowest depth, counting entries from earlier searches as
+ * shallower the older they are. A much shallower, inexact result for a
+ * position that already has an entry from the current search is dropped,
+ * except that a lower bound's move (the move that caused its cutoff)
+ * replaces the entry's move, so a deep result is not lost to a shallow
+ * search that reached the same position by another path or on another
+ * thread.
+ * <p>
+ * The data word packs the move (bits 0-15, {@link chess.PackedMove} without
+ * flags), the score (bits 16-39, signed), the depth (bits 40-47), the bound
+ * (bits 48-49) and the search generation (bits 50-57).
+ */
+public final class TranspositionTable {
+    /**
+     * The score is exact
+     */
+    public static final int EXACT = 1;
+    /**
+     * The score is at least the stored value (the search failed high)
+     */
+    public static final int LOWER_BOUND = 2;
+    /**
+     * The score is at most the stored value (the search failed low)
+     */
+    public static final int UPPER_BOUND = 3;
+    /**
+     * Returned by {@link #probe} when the position is not in the table
+     */
+    public static final long MISS = 0;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    // a direct buffer is indexed by int, so big tables are split into 1 GB chunks
+    private static final int CHUNK_SHIFT = 30;
+    // each generation of age costs a stored entry this much depth when picking one to replace
+    private static final int AGE_PENALTY = 4;
+    // an inexact result this much shallower than the current search's entry keeps only its move
+    private static final int DEPTH_MARGIN = 2;
+
+    private final ByteBuffer[] chunks;
+    private final long bucketMask;
+    private final int bucketsPerChunkShift;
+    private volatile int generation;
+
+    /**
+     * @param megabytes the table size, rounded down to a power of two (at least 1 MB)
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Long.highestOneBit(Math.max(1, megabytes)) << 20;
+        long chunkBytes = Math.min(bytes, 1L << CHUNK_SHIFT);
+        chunks = new ByteBuffer[(int) (bytes / chunkBytes)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect((int) chunkBytes).order(ByteOrder.nativeOrder());
+        }
+        bucketMask = bytes / BUCKET_BYTES - 1;
+        bucketsPerChunkShift = Long.numberOfTrailingZeros(chunkBytes / BUCKET_BYTES);
+    }
+
+    /**
+     * Starts a new search, so entries from earlier searches become easier to replace
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Empties the table. Not safe to call while a search is using it.
+     */
+    public void clear() {
+        for (ByteBuffer chunk : chunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += Long.BYTES) {
+                chunk.putLong(offset, 0);
+            }
+        }
+        generation = 0;
+    }
+
+    /**
+     * @return the entry data stored for the position, or {@link #MISS}
+     */
+    public long probe(long key) {
+        long bucket = key & bucketMask;
+        ByteBuffer chunk = chunks[(int) (bucket >>> bucketsPerChunkShift)];
+        int offset = bucketOffset(bucket);
+        for (int i = 0; i < BUCKET_ENTRIES; i++, offset += ENTRY_BYTES) {
+            long data = (long) LONGS.getOpaque(chunk, offset + Long.BYTES);
+            if (data != MISS && ((long) LONGS.getOpaque(chunk, offset) ^ data) == key) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a search result for the position
+     *
+     * @param move  the best move found, or {@link chess.PackedMove#NONE}
+     * @param score the score, between -{@link Search#MATE} and {@link Search#MATE}
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        long bucket = key & bucketMask;
+        ByteBuffer chunk = chunks[(int) (bucket >>> bucketsPerChunkShift)];
+        int first = bucketOffset(bucket);
+        int currentGeneration = generation;
+        int victim = first;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = 0, offset = first; i < BUCKET_ENTRIES; i++, offset += ENTRY_BYTES) {
+            long data = (long) LONGS.getOpaque(chunk, offset + Long.BYTES);
+            if (data == MISS || ((long) LONGS.getOpaque(chunk, offset) ^ data) == key) {
+                if (data != MISS && generation(data) == currentGeneration && bound != EXACT
+                        && depth < depth(data) - DEPTH_MARGIN) {
+                    // only a cutoff's move is worth more than the deeper search's choice
+                    if (bound == LOWER_BOUND && move != 0 && move != move(data)) {
+                        long kept = (data & ~0xFFFFL) | (move & 0xFFFFL);
+                        LONGS.setOpaque(chunk, offset, key ^ kept);
+                        LONGS.setOpaque(chunk, offset + Long.BYTES, kept);
+                    }
+                    return;
+                }
+                if (data != MISS && move == 0) {
+                    move = move(data); // keep the old best move rather than forget it
+                }
+                victim = offset;
+                break;
+            }
+            int age = (currentGeneration - generation(data)) & 0xFF;
+            int worth = depth(data) - age * AGE_PENALTY;
+            if (worth < victimWorth) {
+                victimWorth = worth;
+                victim = offset;
+            }
+        }
+
+        long data = (move & 0xFFFFL)
+                | ((score & 0xFFFFFFL) << 16)
+                | ((long) (Math.min(Math.max(depth, 0), 0xFF)) << 40)
+                | ((long) bound << 48)
+                | ((long) currentGeneration << 50);
+        LONGS.setOpaque(chunk, victim, key ^ data);
+        LONGS.setOpaque(chunk, victim + Long.BYTES, data);
+    }
+
+    /**
+     * @return roughly how full the table is with entries from the current
+     * search, in thousandths, from a sample of its first buckets
+     */
+    public int hashfull() {
+        ByteBuffer chunk = chunks[0];
+        int sample = Math.min(1000, chunk.capacity() / ENTRY_BYTES);
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = (long) LONGS.getOpaque(chunk, i * ENTRY_BYTES + Long.BYTES);
+            if (data != MISS && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (int) ((data << 24) >> 40);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 40) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 48) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 50) & 0xFF);
+    }
+
+    private int bucketOffset(long bucket) {
+        return (int) (bucket & ((1L << bucketsPerChunkShift) - 1)) * BUCKET_BYTES;
+    }
+}
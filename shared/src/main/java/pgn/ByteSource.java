@@ -0,0 +1,15 @@
+package pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A forward-only stream of bytes for {@link PgnReader}, read one byte at a
+ * time without the synchronization and bounds bookkeeping of InputStream
+ */
+interface ByteSource extends Closeable {
+    /**
+     * @return the next byte (0-255), or -1 at the end
+     */
+    int read() throws IOException;
+}
@@ -0,0 +1,51 @@
+package pgn;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a range of a file through memory-mapped windows. Only the window
+ * being read is mapped, so files larger than the 2 GB a single mapping can
+ * cover work too, and the operating system pages data in and out as needed.
+ */
+final class MappedSource implements ByteSource {
+    private static final long WINDOW_SIZE = 1L << 28;
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final long end;
+    private long next;
+    private MappedByteBuffer window;
+
+    /**
+     * @param ownsChannel whether closing this source closes the channel
+     */
+    MappedSource(FileChannel channel, long start, long end, boolean ownsChannel) {
+        this.channel = channel;
+        this.next = start;
+        this.end = end;
+        this.ownsChannel = ownsChannel;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (window == null || !window.hasRemaining()) {
+            if (next >= end) {
+                return -1;
+            }
+            long size = Math.min(WINDOW_SIZE, end - next);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, next, size);
+            next += size;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package pgn;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a PGN game is malformed or contains an illegal move. The reader
+ * has already skipped the rest of that game, so reading can carry on with the
+ * next one.
+ */
+public class PgnException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public PgnException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package pgn;
+
+import chess.ChessGame;
+
+import java.util.Map;
+
+/**
+ * One game from a PGN archive
+ *
+ * @param tags   the tag pairs in the order they appeared, e.g. "White" -> "Carlsen, Magnus"
+ * @param game   the position after the last move; its move history holds every
+ *               move, replayed from the "FEN" tag's position or the standard start
+ * @param result "1-0", "0-1", "1/2-1/2", or "*" for a game in progress or unknown
+ */
+public record PgnGame(Map<String, String> tags, ChessGame game, String result) {
+}
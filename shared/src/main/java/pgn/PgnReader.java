@@ -0,0 +1,382 @@
+package pgn;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.San;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Reads games from a PGN archive one at a time, so only the game being read
+ * is ever in memory. Every move is checked against the rules by playing it on
+ * a {@link ChessGame}.
+ * <p>
+ * Comments, variations, numeric annotation glyphs, move numbers and "%"
+ * escape lines are skipped. Tag values are decoded as UTF-8.
+ */
+public final class PgnReader implements Closeable {
+    // large archives are split into this many pieces per thread, so a slow piece doesn't hold up the rest
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    private final ByteSource source;
+    private int pushback = -1;
+    private int line = 1;
+    // whether the byte last read is the first on its line, and whether the next one will be
+    private boolean lineStart;
+    private boolean afterNewline = true;
+    private boolean pushbackLineStart;
+    private final StringBuilder token = new StringBuilder(16);
+    private byte[] text = new byte[64];
+    private final MoveList legal = new MoveList();
+
+    /**
+     * Reads from a stream; closing the reader closes the stream
+     */
+    public PgnReader(InputStream in) {
+        this(new StreamSource(in));
+    }
+
+    PgnReader(ByteSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Reads a file through memory-mapped windows rather than stream reads
+     */
+    public static PgnReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new PgnReader(new MappedSource(channel, 0, channel.size(), true));
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return the game, or null once the input is used up
+     * @throws PgnException if the game has an illegal or unreadable move or a
+     *                      bad FEN tag; the reader is left at the next game
+     */
+    public PgnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        int c = skipSpace();
+        while (c == '[') {
+            readTag(tags);
+            c = skipSpace();
+        }
+        if (c < 0 && tags.isEmpty()) {
+            return null;
+        }
+        unread(c);
+
+        int firstLine = line;
+        ChessGame game = null;
+        String error = null;
+        String fen = tags.get("FEN");
+        try {
+            game = (fen != null) ? ChessGame.fromFen(fen) : new ChessGame();
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage();
+        }
+
+        // once a move fails, the rest of the game is still read so the next game starts cleanly
+        String result = "*";
+        int depth = 0;
+        while ((c = read()) >= 0) {
+            if (c == '%' && lineStart) {
+                skipLine();
+            } else if (c == '{') {
+                skipComment();
+            } else if (c == ';') {
+                skipLine();
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == '[' && lineStart) {
+                unread(c); // the next game's tags, after a game with no result
+                break;
+            } else if (c == '$') {
+                readToken(c);
+            } else if (!isSpace(c)) {
+                readToken(c);
+                if (depth > 0) {
+                    continue;
+                }
+                String tokenResult = result(token);
+                if (tokenResult != null) {
+                    result = tokenResult;
+                    break;
+                }
+                int san = skipMoveNumber(token);
+                if (san < token.length() && error == null) {
+                    error = playMove(game, token.subSequence(san, token.length()));
+                }
+            }
+        }
+        if (error != null) {
+            throw new PgnException("Game starting on line " + firstLine + ": " + error);
+        }
+        return new PgnGame(tags, game, result);
+    }
+
+    private String playMove(ChessGame game, CharSequence san) {
+        legal.clear();
+        game.legalMoves(legal);
+        int move = San.decode(game.getBoard(), legal, san);
+        if (move == PackedMove.NONE) {
+            return "illegal or ambiguous move " + san + " on line " + line;
+        }
+        game.makeMove(move);
+        return null;
+    }
+
+    /**
+     * Reads every game in a file on several threads. The file is cut into
+     * pieces at game boundaries (a "[" starting a line after a blank line) and
+     * each piece is read through its own memory mapping.
+     *
+     * @param games  called for each game, from the worker threads and in no particular order
+     * @param errors called for each malformed game, from the worker threads
+     * @return the number of games read, not counting malformed ones
+     */
+    public static long readAll(Path file, int threads, Consumer<PgnGame> games, Consumer<PgnException> errors)
+            throws IOException {
+        return readAll(file, threads, MIN_CHUNK_SIZE, games, errors);
+    }
+
+    static long readAll(Path file, int threads, long minChunkSize, Consumer<PgnGame> games,
+                        Consumer<PgnException> errors) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, Math.min((long) threads * CHUNKS_PER_THREAD, size / minChunkSize));
+            long[] bounds = new long[chunks + 1];
+            for (int i = 1; i < chunks; i++) {
+                bounds[i] = nextGameStart(channel, Math.max(size / chunks * i, bounds[i - 1]), size);
+            }
+            bounds[chunks] = size;
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<Long>> results = new ArrayList<>(chunks);
+                for (int i = 0; i < chunks; i++) {
+                    long start = bounds[i];
+                    long end = bounds[i + 1];
+                    results.add(pool.submit(() -> readChunk(channel, start, end, games, errors)));
+                }
+                long total = 0;
+                for (Future<Long> result : results) {
+                    total += result.get();
+                }
+                return total;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted reading " + file, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IOException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static long readChunk(FileChannel channel, long start, long end, Consumer<PgnGame> games,
+                                  Consumer<PgnException> errors) throws IOException {
+        long count = 0;
+        try (PgnReader reader = new PgnReader(new MappedSource(channel, start, end, false))) {
+            while (true) {
+                PgnGame game;
+                try {
+                    game = reader.next();
+                } catch (PgnException e) {
+                    errors.accept(e);
+                    continue;
+                }
+                if (game == null) {
+                    return count;
+                }
+                games.accept(game);
+                count++;
+            }
+        }
+    }
+
+    /**
+     * @return the offset of the first "[" at or after from that begins a line
+     * following a blank line, or size if there is none
+     */
+    private static long nextGameStart(FileChannel channel, long from, long size) throws IOException {
+        try (MappedSource source = new MappedSource(channel, from, size, false)) {
+            int newlines = 0;
+            for (long position = from; position < size; position++) {
+                int c = source.read();
+                if (c == '\n') {
+                    newlines++;
+                } else if (c == '[' && newlines >= 2) {
+                    return position;
+                } else if (c != '\r' && c != ' ' && c != '\t') {
+                    newlines = 0;
+                }
+            }
+            return size;
+        }
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        int c = skipInlineSpace(read());
+        token.setLength(0);
+        while (c >= 0 && c != '"' && c != ']' && !isSpace(c)) {
+            token.append((char) c);
+            c = read();
+        }
+        String name = token.toString();
+        c = skipInlineSpace(c);
+        int length = 0;
+        if (c == '"') {
+            while ((c = read()) >= 0 && c != '"' && c != '\n') {
+                if (c == '\\') {
+                    c = read();
+                }
+                if (length == text.length) {
+                    text = Arrays.copyOf(text, length * 2);
+                }
+                text[length++] = (byte) c;
+            }
+        }
+        while (c >= 0 && c != ']' && c != '\n') {
+            c = read();
+        }
+        if (!name.isEmpty()) {
+            tags.put(name, new String(text, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Reads a movetext token starting with first into token
+     */
+    private void readToken(int first) throws IOException {
+        token.setLength(0);
+        token.append((char) first);
+        int c;
+        while ((c = read()) >= 0 && !isSpace(c) && "{}();[$".indexOf(c) < 0) {
+            token.append((char) c);
+        }
+        unread(c);
+    }
+
+    private static String result(CharSequence token) {
+        return switch (token.toString()) {
+            case "1-0" -> "1-0";
+            case "0-1" -> "0-1";
+            case "1/2-1/2" -> "1/2-1/2";
+            case "*" -> "*";
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the index where the SAN starts after a move number like "12." or
+     * "12...", or the token's length if it is only a move number
+     */
+    private static int skipMoveNumber(CharSequence token) {
+        if (token.length() >= 3 && token.charAt(0) == '0' && token.charAt(1) == '-') {
+            return 0; // castling written with zeros
+        }
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i > 0 && (i == token.length() || token.charAt(i) != '.')) {
+            return token.length(); // a bare number
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return i;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushback >= 0) {
+            c = pushback;
+            pushback = -1;
+            lineStart = pushbackLineStart;
+        } else {
+            c = source.read();
+            if (c == '\n') {
+                line++;
+            }
+            lineStart = afterNewline;
+        }
+        afterNewline = (c == '\n');
+        return c;
+    }
+
+    private void unread(int c) {
+        pushback = c;
+        pushbackLineStart = lineStart;
+    }
+
+    private int skipSpace() throws IOException {
+        int c = read();
+        while (isSpace(c) || (c == '%' && lineStart)) {
+            if (c == '%') {
+                skipLine();
+            }
+            c = read();
+        }
+        return c;
+    }
+
+    private int skipInlineSpace(int c) throws IOException {
+        while (c == ' ' || c == '\t') {
+            c = read();
+        }
+        return c;
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != '\n');
+    }
+
+    private void skipComment() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != '}');
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
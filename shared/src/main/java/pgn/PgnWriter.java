@@ -0,0 +1,109 @@
+package pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.San;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games in PGN export format: the seven standard tags first, then any
+ * others, then the movetext in SAN wrapped at 80 columns, each game followed
+ * by a blank line
+ */
+public final class PgnWriter {
+    private static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+    private static final String[] ROSTER_DEFAULTS = {"?", "?", "????.??.??", "?", "?", "?", "*"};
+    private static final int LINE_LENGTH = 80;
+
+    private final Appendable out;
+    private final StringBuilder san = new StringBuilder(8);
+    private final MoveList legal = new MoveList();
+    private int column;
+
+    public PgnWriter(Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes one game. Its moves are replayed from the "FEN" tag's position
+     * if it has one, otherwise from the standard starting position.
+     *
+     * @throws IllegalArgumentException if a move in the game's history is not
+     *                                  legal when replayed
+     */
+    public void write(PgnGame game) throws IOException {
+        Map<String, String> tags = game.tags();
+        for (int i = 0; i < SEVEN_TAG_ROSTER.length; i++) {
+            String name = SEVEN_TAG_ROSTER[i];
+            String value = name.equals("Result") ? game.result() : tags.getOrDefault(name, ROSTER_DEFAULTS[i]);
+            writeTag(name, value);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isRosterTag(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.append('\n');
+
+        String fen = tags.get("FEN");
+        ChessGame replay = (fen != null) ? ChessGame.fromFen(fen) : new ChessGame();
+        List<ChessMove> history = game.game().getMoveHistory();
+        column = 0;
+        for (int i = 0; i < history.size(); i++) {
+            legal.clear();
+            replay.legalMoves(legal);
+            int move = legal.find(PackedMove.fromChessMove(history.get(i)));
+            if (move == PackedMove.NONE) {
+                throw new IllegalArgumentException("Move " + (i + 1) + " is not legal: " + history.get(i));
+            }
+            boolean white = replay.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            if (white || i == 0) {
+                writeToken(replay.getFullmoveNumber() + (white ? "." : "..."));
+            }
+            san.setLength(0);
+            San.encode(replay, legal, move, san);
+            writeToken(san);
+            replay.makeMove(move);
+        }
+        writeToken(game.result());
+        out.append("\n\n");
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append("\"]\n");
+    }
+
+    private void writeToken(CharSequence token) throws IOException {
+        if (column > 0 && column + 1 + token.length() > LINE_LENGTH) {
+            out.append('\n');
+            column = 0;
+        } else if (column > 0) {
+            out.append(' ');
+            column++;
+        }
+        out.append(token);
+        column += token.length();
+    }
+
+    private static boolean isRosterTag(String name) {
+        for (String rosterTag : SEVEN_TAG_ROSTER) {
+            if (rosterTag.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
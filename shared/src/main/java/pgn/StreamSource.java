@@ -0,0 +1,37 @@
+package pgn;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads an InputStream through a fixed buffer, so an archive of any size is
+ * read in 64 KB pieces
+ */
+final class StreamSource implements ByteSource {
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position;
+    private int limit;
+
+    StreamSource(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit) {
+            int count = in.read(buffer, 0, buffer.length);
+            if (count <= 0) {
+                return -1;
+            }
+            position = 0;
+            limit = count;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,97 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BoardSnapshotTest {
+
+    @Test
+    public void applyMatchesGame() {
+        var playouts = new RandomPlayouts();
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            var game = new ChessGame();
+            BoardSnapshot[] snapshot = {game.snapshot()};
+            playouts.play(game, 200, move -> {
+                snapshot[0] = snapshot[0].apply(move);
+                Assertions.assertEquals(game.snapshot(), snapshot[0]);
+                Assertions.assertEquals(game.zobrist(), snapshot[0].zobrist());
+                Assertions.assertEquals(game.getFullmoveNumber(), snapshot[0].getFullmoveNumber());
+            });
+            Assertions.assertEquals(game.getBoard(), snapshot[0].toBoard());
+        }
+    }
+
+    @Test
+    public void applyCastles() {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        var after = game.snapshot().apply(legalMove(game, "O-O"));
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                after.getPiece(ChessPosition.of(1, 6)));
+        Assertions.assertNull(after.getPiece(ChessPosition.of(1, 8)));
+        Assertions.assertEquals("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R4RK1 b kq - 1 1",
+                after.toGame().toFen());
+    }
+
+    @Test
+    public void applyCapturesEnPassant() {
+        var game = ChessGame.fromFen("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 3");
+        var after = game.snapshot().apply(legalMove(game, "dxe3"));
+        Assertions.assertNull(after.getPiece(ChessPosition.of(4, 5)), "the captured pawn is removed");
+        Assertions.assertEquals("rnbqkbnr/ppp1pppp/8/8/8/4p3/PPPP1PPP/RNBQKBNR w KQkq - 0 4",
+                after.toGame().toFen());
+    }
+
+    @Test
+    public void keepsFullmoveNumberButComparesPositionOnly() {
+        String fen = "4k3/8/8/8/8/8/4P3/4K3 w - - 7 37";
+        var snapshot = ChessGame.fromFen(fen).snapshot();
+        Assertions.assertEquals(fen, snapshot.toGame().toFen());
+
+        var sameLater = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 12 41").snapshot();
+        Assertions.assertEquals(snapshot, sameLater);
+        Assertions.assertEquals(snapshot.hashCode(), sameLater.hashCode());
+        var otherTurn = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 b - - 7 37").snapshot();
+        Assertions.assertNotEquals(snapshot, otherTurn);
+    }
+
+    @Test
+    public void historyIsUnchangedByLaterMoves() {
+        var game = new ChessGame();
+        var moves = new MoveList();
+        List<BoardSnapshot> history = new ArrayList<>();
+        List<String> boards = new ArrayList<>();
+        history.add(game.snapshot());
+        boards.add(game.getBoard().toString());
+        for (int ply = 0; ply < 40; ply++) {
+            moves.clear();
+            game.legalMoves(moves);
+            int move = moves.get(ply % moves.size());
+            history.add(history.get(history.size() - 1).apply(move));
+            game.makeMove(move);
+            boards.add(game.getBoard().toString());
+        }
+        for (int ply = 0; ply < history.size(); ply++) {
+            Assertions.assertEquals(boards.get(ply), history.get(ply).toString(), "ply " + ply);
+        }
+    }
+
+    @Test
+    public void toGameRestoresPosition() {
+        var game = new ChessGame();
+        var moves = new MoveList();
+        game.legalMoves(moves);
+        game.makeMove(moves.get(0));
+        var copy = game.snapshot().toGame();
+        Assertions.assertEquals(game.zobrist(), copy.zobrist());
+        Assertions.assertEquals(game.getTeamTurn(), copy.getTeamTurn());
+    }
+
+    private static int legalMove(ChessGame game, String san) {
+        var legal = new MoveList();
+        game.legalMoves(legal);
+        return San.decode(game.getBoard(), legal, san);
+    }
+}
@@ -0,0 +1,96 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DrawTest {
+
+    @Test
+    public void loneKings() {
+        Assertions.assertTrue(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1").isInsufficientMaterial());
+    }
+
+    @Test
+    public void singleMinorPiece() {
+        Assertions.assertTrue(ChessGame.fromFen("4k3/8/8/8/8/2N5/8/4K3 w - - 0 1").isInsufficientMaterial());
+        Assertions.assertFalse(ChessGame.fromFen("4k3/8/5n2/8/8/2N5/8/4K3 w - - 0 1").isInsufficientMaterial());
+    }
+
+    @Test
+    public void bishopsOnOneColor() {
+        // c1 and f8 are both dark squares
+        Assertions.assertTrue(ChessGame.fromFen("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1").isInsufficientMaterial());
+        Assertions.assertFalse(ChessGame.fromFen("2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1").isInsufficientMaterial());
+    }
+
+    @Test
+    public void pawnsAreSufficient() {
+        Assertions.assertFalse(new ChessGame().isInsufficientMaterial());
+        Assertions.assertFalse(ChessGame.fromFen("4k3/8/8/8/8/8/3P4/4K3 w - - 0 1").isInsufficientMaterial());
+    }
+
+    @Test
+    public void signatureFollowsCapturesAndPromotions() {
+        var game = ChessGame.fromFen("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        var promotion = PackedMove.of(48, 57, ChessPiece.PieceType.KNIGHT, PackedMove.FLAG_CAPTURE);
+        int before = game.getBoard().getMaterialSignature(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(1, ChessBoard.countOf(before, ChessPiece.PieceType.PAWN));
+        game.makeMove(promotion);
+        int after = game.getBoard().getMaterialSignature(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(0, ChessBoard.countOf(after, ChessPiece.PieceType.PAWN));
+        Assertions.assertEquals(1, ChessBoard.countOf(after, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertTrue(game.isInsufficientMaterial());
+        game.unmakeMove();
+        Assertions.assertEquals(before, game.getBoard().getMaterialSignature(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInsufficientMaterial());
+    }
+
+    @Test
+    public void signatureCountsAreLimited() {
+        var board = new ChessBoard();
+        var queen = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        for (int square = 0; square < ChessBoard.MAX_PIECES_OF_TYPE; square++) {
+            board.addPiece(ChessPosition.of(square), queen);
+        }
+        var rook = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        board.addPiece(ChessPosition.of(40), rook);
+        int full = board.getMaterialSignature(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(ChessBoard.MAX_PIECES_OF_TYPE, ChessBoard.countOf(full, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(1, ChessBoard.countOf(full, ChessPiece.PieceType.ROOK));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.addPiece(ChessPosition.of(40), queen));
+        Assertions.assertEquals(rook, board.getPiece(ChessPosition.of(40)),
+                "a rejected piece leaves the board as it was");
+        Assertions.assertEquals(full, board.getMaterialSignature(ChessGame.TeamColor.WHITE));
+        // putting a queen where one already stands does not add to the count
+        board.addPiece(ChessPosition.of(0), queen);
+        Assertions.assertEquals(full, board.getMaterialSignature(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    public void halfmoveClockCountsQuietPlies() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        Assertions.assertEquals(2, game.getHalfmoveClock());
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        game.unmakeMove();
+        Assertions.assertEquals(2, game.getHalfmoveClock());
+        Assertions.assertFalse(game.isFiftyMoveRule());
+    }
+
+    @Test
+    public void fiftyMovesWithoutProgress() {
+        var game = new ChessGame();
+        var moves = new MoveList();
+        int[] knightTours = {PackedMove.of(6, 21, 0), PackedMove.of(62, 45, 0),
+                PackedMove.of(21, 6, 0), PackedMove.of(45, 62, 0)};
+        for (int ply = 0; ply < 100; ply++) {
+            Assertions.assertFalse(game.isFiftyMoveRule());
+            moves.clear();
+            game.legalMoves(moves);
+            game.makeMove(moves.find(knightTours[ply % 4]));
+        }
+        Assertions.assertTrue(game.isFiftyMoveRule());
+    }}
@@ -0,0 +1,84 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+public class FenTest {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    public void startingPosition() {
+        var game = ChessGame.fromFen(START);
+        Assertions.assertEquals(new ChessGame().getBoard(), game.getBoard());
+        Assertions.assertEquals(new ChessGame().zobrist(), game.zobrist());
+        Assertions.assertEquals(START, new ChessGame().toFen());
+    }
+
+    @Test
+    public void roundTripsEveryField() {
+        String[] records = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b Kq e3 0 3",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 37 112",
+                "4k3/8/8/8/8/8/8/4K2R b K - 99 250",
+        };
+        for (String record : records) {
+            Assertions.assertEquals(record, ChessGame.fromFen(record).toFen());
+        }
+    }
+
+    @Test
+    public void countersAreOptional() {
+        var game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 b -  -");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    public void followsTheGame() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2", game.toFen());
+        game.unmakeMove();
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    public void writesToAnyAppendable() throws IOException {
+        var out = new StringBuilder("fen: ");
+        ChessGame.fromFen(START).toFen(out);
+        Assertions.assertEquals("fen: " + START, out.toString());
+    }
+
+    @Test
+    public void enPassantFromFenIsPlayable() {
+        var game = ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        var moves = new MoveList();
+        game.legalMoves(moves);
+        Assertions.assertNotEquals(PackedMove.NONE, moves.find(PackedMove.of(36, 45, 0)));
+        Assertions.assertEquals(31, moves.size());
+    }
+
+    @Test
+    public void rejectsMalformedRecords() {
+        String[] records = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - zero 1",
+        };
+        for (String record : records) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(record), record);
+        }
+    }
+}
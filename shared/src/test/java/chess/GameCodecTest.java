@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GameCodecTest {
+
+    @Test
+    public void oneBytePerPly() {
+        var playouts = new RandomPlayouts();
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            var game = new ChessGame();
+            playouts.play(game, 150, null);
+            String fen = game.toFen();
+            byte[] encoded = GameCodec.encode(game);
+            Assertions.assertEquals(1 + game.getPly(), encoded.length);
+            Assertions.assertEquals(fen, game.toFen());
+
+            var decoded = GameCodec.decode(encoded);
+            Assertions.assertEquals(fen, decoded.toFen());
+            Assertions.assertEquals(game.getMoveHistory(), decoded.getMoveHistory());
+        }
+    }
+
+    @Test
+    public void promotionAndUnderpromotion() throws InvalidMoveException {
+        var game = ChessGame.fromFen("r3k3/1P4P1/8/8/8/8/8/4K3 w - - 0 1");
+        game.makeMove(San.fromSan(game, "g8=Q+"));
+        game.makeMove(San.fromSan(game, "Kd7"));
+        game.makeMove(San.fromSan(game, "bxa8=N"));
+
+        var decoded = GameCodec.decode(GameCodec.encode(game));
+        Assertions.assertEquals("N5Q1/3k4/8/8/8/8/8/4K3 b - - 0 2", decoded.toFen());
+        var history = decoded.getMoveHistory();
+        Assertions.assertEquals(ChessPiece.PieceType.QUEEN, history.get(0).getPromotionPiece());
+        Assertions.assertEquals(ChessPiece.PieceType.KNIGHT, history.get(2).getPromotionPiece());
+    }
+
+    @Test
+    public void customStartingPosition() throws InvalidMoveException {
+        String start = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        var game = ChessGame.fromFen(start);
+        game.makeMove(San.fromSan(game, "O-O"));
+        game.makeMove(San.fromSan(game, "O-O-O"));
+        game.makeMove(San.fromSan(game, "a4"));
+        game.makeMove(San.fromSan(game, "bxa3"));
+
+        byte[] encoded = GameCodec.encode(game);
+        Assertions.assertEquals(GameCodec.FEN_START, encoded[0]);
+        Assertions.assertEquals(2 + start.length() + 4, encoded.length);
+        var decoded = GameCodec.decode(encoded);
+        Assertions.assertEquals(game.toFen(), decoded.toFen());
+        for (int ply = 0; ply < 4; ply++) {
+            decoded.unmakeMove();
+        }
+        Assertions.assertEquals(start, decoded.toFen());
+    }
+
+    @Test
+    public void rejectsCorruptData() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[0]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[]{7}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[]{0, 20}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[]{1, 90, 'r'}));
+    }
+}
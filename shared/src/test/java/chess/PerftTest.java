@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class PerftTest {
+
+    // published leaf counts from the starting position
+    private static final long[] START_COUNTS = {1, 20, 400, 8902, 197281, 4865609};
+
+    // "Kiwipete": every castle, en passant, promotions and pins within a few plies
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final long[] KIWIPETE_COUNTS = {1, 48, 2039, 97862};
+
+    // an endgame full of discovered checks and horizontally pinned en passant captures
+    private static final String ROOK_ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final long[] ROOK_ENDGAME_COUNTS = {1, 14, 191, 2812, 43238};
+
+    @Test
+    public void startingPositionCounts() {
+        for (int depth = 0; depth < START_COUNTS.length; depth++) {
+            Assertions.assertEquals(START_COUNTS[depth], Perft.perft(new ChessGame(), depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    public void castlingAndEnPassantCounts() {
+        for (int depth = 0; depth < KIWIPETE_COUNTS.length; depth++) {
+            Assertions.assertEquals(KIWIPETE_COUNTS[depth], Perft.perft(ChessGame.fromFen(KIWIPETE), depth), "depth " + depth);
+        }
+        for (int depth = 0; depth < ROOK_ENDGAME_COUNTS.length; depth++) {
+            Assertions.assertEquals(ROOK_ENDGAME_COUNTS[depth], Perft.perft(ChessGame.fromFen(ROOK_ENDGAME), depth),
+                    "depth " + depth);
+        }
+    }
+
+    @Test
+    public void parallelAndHashedMatchSequential() {
+        Assertions.assertEquals(START_COUNTS[4], new Perft(true, false).count(new ChessGame(), 4));
+        Assertions.assertEquals(START_COUNTS[4], new Perft(false, true).count(new ChessGame(), 4));
+        Assertions.assertEquals(START_COUNTS[4], new Perft(true, true).count(new ChessGame(), 4));
+    }
+
+    @Test
+    public void divideSumsToTotal() {
+        Map<ChessMove, Long> counts = new Perft(false, false).divide(new ChessGame(), 3);
+        Assertions.assertEquals(20, counts.size());
+        Assertions.assertEquals(Long.valueOf(600),
+                counts.get(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)));
+        long total = 0;
+        for (long nodes : counts.values()) {
+            total += nodes;
+        }
+        Assertions.assertEquals(START_COUNTS[3], total);
+    }
+
+    @Test
+    public void perftLeavesGameUnchanged() {
+        var game = new ChessGame();
+        long key = game.zobrist();
+        Perft.perft(game, 3);
+        Assertions.assertEquals(key, game.zobrist());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }}
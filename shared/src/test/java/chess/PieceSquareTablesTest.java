@@ -0,0 +1,63 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PieceSquareTablesTest {
+
+    @Test
+    public void packedHalvesRoundTrip() {
+        int[][] pairs = {{0, 0}, {-5, 3}, {7, -9}, {-1200, -800}, {3000, 2500}};
+        for (int[] pair : pairs) {
+            int packed = PieceSquareTables.pack(pair[0], pair[1]);
+            Assertions.assertEquals(pair[0], PieceSquareTables.midgame(packed));
+            Assertions.assertEquals(pair[1], PieceSquareTables.endgame(packed));
+            Assertions.assertEquals(-pair[0], PieceSquareTables.midgame(-packed));
+            Assertions.assertEquals(-pair[1], PieceSquareTables.endgame(-packed));
+        }
+    }
+
+    @Test
+    public void startPositionIsBalanced() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertEquals(0, board.getPieceSquareScore());
+        Assertions.assertEquals(PieceSquareTables.MAX_PHASE, board.getPhase());
+    }
+
+    @Test
+    public void incrementalScoreMatchesRebuiltBoard() {
+        var playouts = new RandomPlayouts();
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            int startScore = game.getBoard().getPieceSquareScore();
+            int plies = playouts.play(game, 150, move -> {
+                var rebuilt = game.snapshot().toBoard();
+                Assertions.assertEquals(rebuilt.getPieceSquareScore(), game.getBoard().getPieceSquareScore());
+                Assertions.assertEquals(rebuilt.getPhase(), game.getBoard().getPhase());
+            });
+            for (; plies > 0; plies--) {
+                game.unmakeMove();
+            }
+            Assertions.assertEquals(startScore, game.getBoard().getPieceSquareScore());
+        }
+    }
+
+    @Test
+    public void knownPositionScore() {
+        // rook h1: 477 - 26 midgame, 512 - 20 endgame; black pawn e7: -(82 - 15), -(94 + 13); kings cancel
+        var board = ChessGame.fromFen("4k3/4p3/8/8/8/8/8/4K2R w - - 0 1").getBoard();
+        Assertions.assertEquals(384, PieceSquareTables.midgame(board.getPieceSquareScore()));
+        Assertions.assertEquals(385, PieceSquareTables.endgame(board.getPieceSquareScore()));
+        Assertions.assertEquals(2, board.getPhase());
+        // (384 * 2 + 385 * 22) / 24
+        Assertions.assertEquals(384, PieceSquareTables.taper(board.getPieceSquareScore(), board.getPhase()));
+    }
+
+    @Test
+    public void colorsAreMirrored() {
+        var white = ChessGame.fromFen("4k3/8/8/8/3N4/8/2P5/4K3 w - - 0 1").getBoard();
+        var black = ChessGame.fromFen("4k3/2p5/8/3n4/8/8/8/4K3 w - - 0 1").getBoard();
+        Assertions.assertEquals(white.getPieceSquareScore(), -black.getPieceSquareScore());
+    }
+}
@@ -0,0 +1,36 @@
+package chess;
+
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Plays random legal moves for tests that check an incrementally kept value
+ * against a recomputed one over many positions. The seed is fixed so a
+ * failure always replays the same game.
+ */
+final class RandomPlayouts {
+    private final Random random = new Random(240);
+    private final MoveList moves = new MoveList();
+
+    /**
+     * Makes up to maxPlies random legal moves, stopping early at checkmate or stalemate
+     *
+     * @param afterMove called with each move right after the game makes it, or null
+     * @return how many moves were made
+     */
+    int play(ChessGame game, int maxPlies, IntConsumer afterMove) {
+        for (int ply = 0; ply < maxPlies; ply++) {
+            moves.clear();
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                return ply;
+            }
+            int move = moves.get(random.nextInt(moves.size()));
+            game.makeMove(move);
+            if (afterMove != null) {
+                afterMove.accept(move);
+            }
+        }
+        return maxPlies;
+    }
+}
@@ -0,0 +1,82 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class RepetitionTest {
+
+    private static final ChessMove WHITE_OUT = move(1, 7, 3, 6);
+    private static final ChessMove BLACK_OUT = move(8, 7, 6, 6);
+    private static final ChessMove WHITE_BACK = move(3, 6, 1, 7);
+    private static final ChessMove BLACK_BACK = move(6, 6, 8, 7);
+
+    @Test
+    public void knightShuffleRepeatsThreeTimes() throws InvalidMoveException {
+        var game = new ChessGame();
+        Assertions.assertEquals(1, game.repetitionCount());
+        shuffle(game);
+        Assertions.assertEquals(2, game.repetitionCount());
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        shuffle(game);
+        Assertions.assertEquals(3, game.repetitionCount());
+        Assertions.assertTrue(game.isThreefoldRepetition());
+
+        game.unmakeMove();
+        Assertions.assertEquals(2, game.repetitionCount());
+        Assertions.assertFalse(game.isThreefoldRepetition());
+    }
+
+    @Test
+    public void pawnMoveStartsNewWindow() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffle(game);
+        game.makeMove(move(2, 1, 3, 1));
+        game.makeMove(move(7, 1, 6, 1));
+        Assertions.assertEquals(1, game.repetitionCount());
+        shuffle(game);
+        shuffle(game);
+        Assertions.assertEquals(3, game.repetitionCount());
+    }
+
+    @Test
+    public void historyListsMovesInOrder() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffle(game);
+        Assertions.assertEquals(4, game.getPly());
+        Assertions.assertEquals(List.of(WHITE_OUT, BLACK_OUT, WHITE_BACK, BLACK_BACK), game.getMoveHistory());
+    }
+
+    @Test
+    public void unmakingRestoresCounts() {
+        var game = new ChessGame();
+        var moves = new MoveList();
+        int[] counts = new int[61];
+        for (int ply = 0; ply < 60; ply++) {
+            counts[ply] = game.repetitionCount();
+            moves.clear();
+            game.legalMoves(moves);
+            // mostly knight and king moves, so positions come back
+            game.makeMove(moves.get(ply % Math.min(3, moves.size())));
+        }
+        counts[60] = game.repetitionCount();
+        for (int ply = 60; ply > 0; ply--) {
+            Assertions.assertEquals(counts[ply], game.repetitionCount(), "ply " + ply);
+            game.unmakeMove();
+        }
+        Assertions.assertEquals(counts[0], game.repetitionCount());
+        Assertions.assertEquals(0, game.getPly());
+    }
+
+    private static void shuffle(ChessGame game) throws InvalidMoveException {
+        game.makeMove(WHITE_OUT);
+        game.makeMove(BLACK_OUT);
+        game.makeMove(WHITE_BACK);
+        game.makeMove(BLACK_BACK);
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
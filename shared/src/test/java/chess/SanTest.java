@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SanTest {
+
+    @Test
+    public void pawnAndPieceMoves() throws InvalidMoveException {
+        var game = new ChessGame();
+        Assertions.assertEquals("e4", San.toSan(game, move(2, 5, 4, 5, null)));
+        Assertions.assertEquals("Nf3", San.toSan(game, move(1, 7, 3, 6, null)));
+        Assertions.assertEquals(move(1, 2, 3, 3, null), San.fromSan(game, "Nc3"));
+        Assertions.assertEquals(move(2, 4, 4, 4, null), San.fromSan(game, "d4!?"));
+    }
+
+    @Test
+    public void disambiguation() throws InvalidMoveException {
+        var knights = ChessGame.fromFen("4k3/8/8/8/8/5N2/8/1N2K3 w - - 0 1");
+        Assertions.assertEquals("Nbd2", San.toSan(knights, move(1, 2, 2, 4, null)));
+        Assertions.assertEquals("Nfd2", San.toSan(knights, move(3, 6, 2, 4, null)));
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.fromSan(knights, "Nd2"));
+
+        var rooks = ChessGame.fromFen("4k3/8/8/R7/8/8/8/R3K3 w - - 0 1");
+        Assertions.assertEquals("R1a3", San.toSan(rooks, move(1, 1, 3, 1, null)));
+        Assertions.assertEquals(move(5, 1, 3, 1, null), San.fromSan(rooks, "R5a3"));
+
+        var queens = ChessGame.fromFen("4k3/8/8/8/8/Q7/8/Q1Q1K3 w - - 0 1");
+        Assertions.assertEquals("Qa1b2", San.toSan(queens, move(1, 1, 2, 2, null)));
+        Assertions.assertEquals("Qcb2", San.toSan(queens, move(1, 3, 2, 2, null)));
+        Assertions.assertEquals("Q3b2", San.toSan(queens, move(3, 1, 2, 2, null)));
+        Assertions.assertEquals(move(1, 1, 2, 2, null), San.fromSan(queens, "Qa1xb2"));
+    }
+
+    @Test
+    public void castlingCapturesAndPromotion() throws InvalidMoveException {
+        var game = ChessGame.fromFen("r3k2r/1P6/8/3pP3/8/8/8/R3K2R w KQkq d6 0 1");
+        Assertions.assertEquals("O-O", San.toSan(game, move(1, 5, 1, 7, null)));
+        Assertions.assertEquals("O-O-O", San.toSan(game, move(1, 5, 1, 3, null)));
+        Assertions.assertEquals(move(1, 5, 1, 3, null), San.fromSan(game, "0-0-0"));
+        Assertions.assertEquals("exd6", San.toSan(game, move(5, 5, 6, 4, null)));
+        Assertions.assertEquals("bxa8=Q+", San.toSan(game, move(7, 2, 8, 1, ChessPiece.PieceType.QUEEN)));
+        Assertions.assertEquals("b8=N", San.toSan(game, move(7, 2, 8, 2, ChessPiece.PieceType.KNIGHT)));
+        Assertions.assertEquals(move(7, 2, 8, 1, ChessPiece.PieceType.ROOK), San.fromSan(game, "bxa8R"));
+    }
+
+    @Test
+    public void checkmateSuffix() throws InvalidMoveException {
+        var game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        Assertions.assertEquals("Ra8#", San.toSan(game, move(1, 1, 8, 1, null)));
+        Assertions.assertEquals(0, game.getPly());
+    }
+
+    @Test
+    public void rejectsIllegalMoves() {
+        var game = new ChessGame();
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.fromSan(game, "e5"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.fromSan(game, "O-O"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.fromSan(game, "Zz9"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.toSan(game, move(1, 1, 3, 1, null)));
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), promotion);
+    }
+}
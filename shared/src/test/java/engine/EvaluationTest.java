@@ -0,0 +1,82 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+import chess.PieceSquareTables;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EvaluationTest {
+
+    @Test
+    public void startPositionIsEven() {
+        var game = new ChessGame();
+        Assertions.assertEquals(0, Evaluation.evaluate(game));
+        Assertions.assertEquals(0, Evaluation.evaluate(game.getBoard(), TeamColor.BLACK));
+    }
+
+    @Test
+    public void mirroredPositionScoresTheSameForEitherSide() {
+        String[] fens = {
+                "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        };
+        for (String fen : fens) {
+            var board = ChessGame.fromFen(fen).getBoard();
+            var mirrored = mirror(board);
+            int white = Evaluation.evaluate(board, TeamColor.WHITE);
+            Assertions.assertEquals(white, Evaluation.evaluate(mirrored, TeamColor.BLACK), fen);
+            Assertions.assertEquals(-white, Evaluation.evaluate(board, TeamColor.BLACK), fen);
+        }
+    }
+
+    @Test
+    public void countsSliderMobilityAndTapersByPhase() {
+        // the rook reaches a2-a8 and b1-g1; black has no piece that moves far
+        var board = ChessGame.fromFen("k7/8/8/8/8/8/8/R6K w - - 0 1").getBoard();
+        Assertions.assertEquals(2, board.getPhase());
+        int packed = board.getPieceSquareScore() + 13 * Evaluation.MOBILITY[PieceType.ROOK.ordinal()];
+        int expected = PieceSquareTables.taper(packed, 2);
+        Assertions.assertEquals(expected, Evaluation.evaluate(board, TeamColor.WHITE));
+        Assertions.assertEquals(-expected, Evaluation.evaluate(board, TeamColor.BLACK));
+    }
+
+    @Test
+    public void freerSlidersScoreHigher() {
+        // same material, but here the white bishop is boxed in by its own pawns; placement is subtracted out
+        var open = ChessGame.fromFen("4k3/pp6/8/8/8/8/PP1B4/4K3 w - - 0 1").getBoard();
+        var blocked = ChessGame.fromFen("4k3/pp6/8/8/8/2P1P3/3B4/4K3 w - - 0 1").getBoard();
+        int openMobility = Evaluation.evaluate(open, TeamColor.WHITE)
+                - PieceSquareTables.taper(open.getPieceSquareScore(), open.getPhase());
+        int blockedMobility = Evaluation.evaluate(blocked, TeamColor.WHITE)
+                - PieceSquareTables.taper(blocked.getPieceSquareScore(), blocked.getPhase());
+        Assertions.assertTrue(openMobility > blockedMobility, openMobility + " vs " + blockedMobility);
+    }
+
+    @Test
+    public void pawnEndgameUsesEndgameScores() {
+        var board = ChessGame.fromFen("4k3/ppp5/8/8/8/8/4PPPP/4K3 w - - 0 1").getBoard();
+        Assertions.assertEquals(0, board.getPhase());
+        Assertions.assertEquals(PieceSquareTables.endgame(board.getPieceSquareScore()),
+                Evaluation.evaluate(board, TeamColor.WHITE));
+    }
+
+    private static ChessBoard mirror(ChessBoard board) {
+        var mirrored = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece != null) {
+                    TeamColor other = (piece.getTeamColor() == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+                    mirrored.addPiece(new ChessPosition(9 - row, col), new ChessPiece(other, piece.getPieceType()));
+                }
+            }
+        }
+        return mirrored;
+    }
+}
@@ -0,0 +1,74 @@
+package engine;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+public class MovePickerTest {
+    private static final int[] NO_KILLERS = {PackedMove.NONE, PackedMove.NONE};
+
+    @Test
+    public void handsOutEveryMoveOnce() {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        var legal = new MoveList();
+        game.legalMoves(legal);
+        var picker = new MovePicker(new HistoryTable());
+        picker.reset(game, PackedMove.NONE, NO_KILLERS, false);
+        var picked = new HashSet<Integer>();
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            Assertions.assertTrue(picked.add(move));
+        }
+        Assertions.assertEquals(legal.size(), picked.size());
+    }
+
+    @Test
+    public void ordersHashCapturesKillersThenHistory() {
+        // the white queen can take the rook on d8 or the pawn on h5
+        var game = ChessGame.fromFen("3rk3/8/8/7p/8/8/8/3QK3 w - - 0 1");
+        var history = new HistoryTable();
+        int hashMove = move(game, 4, 5); // Ke1-f1
+        int killer = move(game, 3, 11); // Qd1-d2
+        int favorite = move(game, 3, 12); // Qd1-e2
+        history.reward(ChessGame.TeamColor.WHITE.ordinal(), favorite, 4);
+
+        var picker = new MovePicker(history);
+        picker.reset(game, hashMove, new int[]{PackedMove.withoutFlags(killer), PackedMove.NONE}, false);
+        List<Integer> order = new ArrayList<>();
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            order.add(move);
+        }
+        Assertions.assertEquals(hashMove, (int) order.get(0));
+        Assertions.assertEquals(59, PackedMove.to(order.get(1)), "rook capture before pawn capture");
+        Assertions.assertEquals(39, PackedMove.to(order.get(2)));
+        Assertions.assertEquals(killer, (int) order.get(3));
+        Assertions.assertEquals(favorite, (int) order.get(4));
+    }
+
+    @Test
+    public void capturesOnlyDropsQuietMoves() {
+        var game = ChessGame.fromFen("3rk3/8/8/7p/8/8/8/3QK3 w - - 0 1");
+        var picker = new MovePicker(new HistoryTable());
+        picker.reset(game, PackedMove.NONE, NO_KILLERS, true);
+        Assertions.assertEquals(2, picker.size());
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            Assertions.assertTrue(PackedMove.isCapture(move));
+        }
+    }
+
+    private static int move(ChessGame game, int from, int to) {
+        var legal = new MoveList();
+        game.legalMoves(legal);
+        for (int i = 0; i < legal.size(); i++) {
+            if (PackedMove.from(legal.get(i)) == from && PackedMove.to(legal.get(i)) == to) {
+                return legal.get(i);
+            }
+        }
+        throw new AssertionError("no move " + from + "-" + to);
+    }
+}
@@ -0,0 +1,45 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParallelSearchTest {
+
+    @Test
+    public void findsMateWithHelpers() {
+        var game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        var result = new ParallelSearch(4, new TranspositionTable(1)).search(game, SearchLimits.depth(5));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                result.bestMove());
+        Assertions.assertEquals(Search.MATE - 1, result.score());
+        Assertions.assertEquals("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", game.toFen());
+    }
+
+    @Test
+    public void mainThreadDecidesDepth() {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String fen = game.toFen();
+        var result = new ParallelSearch(3, new TranspositionTable(4)).search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(4, result.depth());
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertEquals(fen, game.toFen());
+    }
+
+    @Test
+    public void oneThreadMatchesSearch() {
+        var game = new ChessGame();
+        var parallel = new ParallelSearch(1, new TranspositionTable(1)).search(game, SearchLimits.depth(4));
+        var single = new Search(new TranspositionTable(1)).search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(single.bestMove(), parallel.bestMove());
+        Assertions.assertEquals(single.score(), parallel.score());
+        Assertions.assertEquals(single.nodes(), parallel.nodes());
+    }
+
+    @Test
+    public void rejectsZeroThreads() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(0));
+    }
+}
@@ -0,0 +1,85 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SearchTest {
+
+    @Test
+    public void findsMateInOne() {
+        var game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        var result = new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(move(1, 1, 8, 1), result.bestMove());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(Search.MATE - 1, result.score());
+        Assertions.assertEquals(1, result.depth(), "a mate found at depth 1 needs no deeper iteration");
+    }
+
+    @Test
+    public void findsMateInTwo() {
+        // the ladder: 1. Ra7 Kg8 2. Rb8#, or the same with the rooks swapped
+        var game = ChessGame.fromFen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1");
+        var result = new Search().search(game, SearchLimits.depth(5));
+        Assertions.assertEquals(Search.MATE - 3, result.score());
+        Assertions.assertEquals(3, result.principalVariation().size());
+        Assertions.assertEquals(3, result.depth());
+    }
+
+    @Test
+    public void winsHangingQueen() {
+        var game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        var result = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(move(2, 4, 5, 4), result.bestMove());
+        Assertions.assertTrue(result.score() > 400, "score " + result.score());
+    }
+
+    @Test
+    public void noMoveWhenStalemated() {
+        var game = ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        var result = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(0, result.score());
+    }
+
+    @Test
+    public void respectsNodeLimit() {
+        var game = new ChessGame();
+        var result = new Search().search(game, SearchLimits.nodes(20_000));
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.nodes() <= 20_000 + 1, "nodes " + result.nodes());
+        Assertions.assertTrue(result.depth() >= 1);
+    }
+
+    @Test
+    public void respectsTimeLimit() {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String fen = game.toFen();
+        long start = System.nanoTime();
+        var result = new Search().search(game, SearchLimits.time(200));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(elapsedMillis < 1000, "took " + elapsedMillis + " ms");
+        Assertions.assertTrue(result.nodesPerSecond() > 0);
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertEquals(0, game.getPly());
+    }
+
+    @Test
+    public void stopBeforeSearchIsNotLost() {
+        var search = new Search();
+        search.stop();
+        var result = search.search(new ChessGame(), SearchLimits.depth(Search.MAX_DEPTH));
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertEquals(0, result.depth());
+
+        // the stop applied to that search only
+        Assertions.assertEquals(3, search.search(new ChessGame(), SearchLimits.depth(3)).depth());
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,119 @@
+package engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storesAndProbes() {
+        var table = new TranspositionTable(1);
+        long key = 0x0123456789ABCDEFL;
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key));
+
+        table.store(key, 0x1234, -Search.MATE + 7, 12, TranspositionTable.UPPER_BOUND);
+        long entry = table.probe(key);
+        Assertions.assertEquals(0x1234, TranspositionTable.move(entry));
+        Assertions.assertEquals(-Search.MATE + 7, TranspositionTable.score(entry));
+        Assertions.assertEquals(12, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.bound(entry));
+
+        // same bucket, different position
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key ^ (1L << 62)));
+        table.clear();
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key));
+    }
+
+    @Test
+    public void keepsDeepEntriesOverShallowOnes() {
+        var table = new TranspositionTable(1);
+        long bucketStride = 1L << 40; // same low bits, so every key lands in one bucket
+        for (int i = 0; i < 4; i++) {
+            table.store(1 + i * bucketStride, 0, i, 10 + i, TranspositionTable.EXACT);
+        }
+        table.store(1 + 4 * bucketStride, 0, 4, 3, TranspositionTable.EXACT);
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(1));
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(1 + 3 * bucketStride));
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(1 + 4 * bucketStride));
+    }
+
+    @Test
+    public void shallowResultDoesNotReplaceDeepOneForSamePosition() {
+        var table = new TranspositionTable(1);
+        long key = 0x0123456789ABCDEFL;
+        table.store(key, 0x1234, 55, 10, TranspositionTable.EXACT);
+        table.store(key, 0x0567, -20, 1, TranspositionTable.LOWER_BOUND);
+        long entry = table.probe(key);
+        Assertions.assertEquals(10, TranspositionTable.depth(entry));
+        Assertions.assertEquals(55, TranspositionTable.score(entry));
+        Assertions.assertEquals(TranspositionTable.EXACT, TranspositionTable.bound(entry));
+        Assertions.assertEquals(0x0567, TranspositionTable.move(entry), "the newer move is carried over");
+
+        // an exact result, or one from a later search, still replaces it
+        table.store(key, 0x0567, 30, 2, TranspositionTable.EXACT);
+        Assertions.assertEquals(2, TranspositionTable.depth(table.probe(key)));
+        table.store(key, 0x1234, 55, 10, TranspositionTable.EXACT);
+        table.newSearch();
+        table.store(key, 0x0567, -20, 1, TranspositionTable.UPPER_BOUND);
+        Assertions.assertEquals(1, TranspositionTable.depth(table.probe(key)));
+    }
+
+    @Test
+    public void shallowFailLowKeepsDeepMove() {
+        var table = new TranspositionTable(1);
+        long key = 0x0123456789ABCDEFL;
+        table.store(key, 0x1234, 55, 10, TranspositionTable.EXACT);
+        table.store(key, 0x0567, -20, 1, TranspositionTable.UPPER_BOUND);
+        long entry = table.probe(key);
+        Assertions.assertEquals(0x1234, TranspositionTable.move(entry));
+        Assertions.assertEquals(10, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.EXACT, TranspositionTable.bound(entry));
+    }
+
+    @Test
+    public void oldSearchesAreReplacedFirst() {
+        var table = new TranspositionTable(1);
+        long bucketStride = 1L << 40;
+        for (int i = 0; i < 4; i++) {
+            table.store(1 + i * bucketStride, 0, 0, 8, TranspositionTable.EXACT);
+        }
+        for (int i = 0; i < 3; i++) {
+            table.newSearch();
+        }
+        table.store(1 + 4 * bucketStride, 0, 0, 2, TranspositionTable.EXACT);
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(1 + 4 * bucketStride));
+    }
+
+    @Test
+    public void concurrentReadersNeverSeeMixedEntries() throws InterruptedException {
+        var table = new TranspositionTable(1);
+        var corrupt = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                var random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    // few distinct keys, so threads keep overwriting each other's entries
+                    long key = random.nextLong(64) * 0x9E3779B97F4A7C15L;
+                    if (random.nextBoolean()) {
+                        table.store(key, (int) (key >>> 48), 0, (int) (key >>> 58), TranspositionTable.EXACT);
+                    } else {
+                        long entry = table.probe(key);
+                        if (entry != TranspositionTable.MISS && TranspositionTable.move(entry) != (int) (key >>> 48)) {
+                            corrupt.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(0, corrupt.get());
+    }
+}
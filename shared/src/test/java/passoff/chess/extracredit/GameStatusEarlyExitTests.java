@@ -0,0 +1,65 @@
+package passoff.chess.extracredit;
+
+import chess.ChessGame;
+import chess.ChessGame.GameStatus;
+import chess.ChessGame.TeamColor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests ChessGame.status, which stops looking for legal moves at the first
+ * one it finds. The positions where that goes wrong are the ones whose only
+ * legal move is unusual: an en passant capture, or a move by a pinned piece.
+ */
+public class GameStatusEarlyExitTests {
+
+    @Test
+    @DisplayName("Normal, Check, Checkmate and Stalemate")
+    public void basicStatuses() {
+        Assertions.assertEquals(GameStatus.NORMAL, new ChessGame().status(TeamColor.WHITE));
+        Assertions.assertEquals(GameStatus.NORMAL, new ChessGame().status(TeamColor.BLACK));
+        Assertions.assertEquals(GameStatus.CHECK,
+                status("4k3/8/8/8/8/8/8/r3K3 w - - 0 1", TeamColor.WHITE));
+        // fool's mate
+        Assertions.assertEquals(GameStatus.CHECKMATE,
+                status("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", TeamColor.WHITE));
+        Assertions.assertEquals(GameStatus.STALEMATE,
+                status("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Only Legal Move Is En Passant")
+    public void onlyEnPassant() {
+        // the king is boxed in and the e-pawn is blocked; only exd6 remains
+        Assertions.assertEquals(GameStatus.NORMAL,
+                status("k5r1/8/4p3/3pP3/8/5n2/8/7K w - d6 0 2", TeamColor.WHITE));
+        Assertions.assertEquals(GameStatus.STALEMATE,
+                status("k5r1/8/4p3/3pP3/8/5n2/8/7K w - - 0 2", TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Only Escape From Check Is En Passant")
+    public void enPassantEscapesCheck() {
+        // the pawn that just moved to g5 gives check, and only hxg6 removes it
+        Assertions.assertEquals(GameStatus.CHECK,
+                status("k5r1/8/8/6pP/7K/r7/4b3/8 w - g6 0 2", TeamColor.WHITE));
+        Assertions.assertEquals(GameStatus.CHECKMATE,
+                status("k5r1/8/8/6pP/7K/r7/4b3/8 w - - 0 2", TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Only Legal Moves Are Along A Pin")
+    public void onlyPinnedPieceMoves() {
+        // the h4 rook is pinned to the king but can still slide along the h-file
+        Assertions.assertEquals(GameStatus.NORMAL,
+                status("k5rr/8/8/8/7R/5n2/8/7K w - - 0 1", TeamColor.WHITE));
+        // pinned along a diagonal, the knight has no move at all
+        Assertions.assertEquals(GameStatus.STALEMATE,
+                status("k7/8/8/3b4/8/8/4n1N1/5n1K w - - 0 1", TeamColor.WHITE));
+    }
+
+    private static GameStatus status(String fen, TeamColor team) {
+        return ChessGame.fromFen(fen).status(team);
+    }
+}
@@ -0,0 +1,154 @@
+package pgn;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PgnTest {
+
+    private static final String OPERA_GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [Round "?"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 $4 {This is a weak move already.} 4. dxe5 Bxf3 5. Qxf3
+            dxe5 6. Bc4 Nf6 7. Qb3 Qe7 8. Nc3 c6 9. Bg5 b5 10. Nxb5 cxb5 11. Bxb5+ Nbd7
+            12. O-O-O Rd8 (12... Qb4 13. Bxf6 gxf6 14. Qxb4) 13. Rxd7 Rxd7 14. Rd1 Qe6
+            ; Morphy sacrifices again
+            15. Bxd7+ Nxd7 16. Qb8+! Nxb8 17. Rd8# 1-0
+
+            """;
+
+    private static final String PROMOTION_GAME = """
+            [Event "Study"]
+            [FEN "4k3/1P6/8/8/8/8/8/4K3 w - - 0 1"]
+            [Result "*"]
+
+            1. b8=Q+ Kd7 2. Qb5+ *
+
+            """;
+
+    private static final String EN_PASSANT_GAME = """
+            [Event "Casual"]
+
+            1.e4 a6 2.e5 d5 3.exd6 cxd6 4.0-0?? 1/2-1/2
+
+            [Event "Next"]
+
+            1. e4 *
+            """;
+
+    @Test
+    public void readsAnnotatedGame() throws IOException {
+        try (var reader = reader(OPERA_GAME)) {
+            var game = reader.next();
+            Assertions.assertEquals("1-0", game.result());
+            Assertions.assertEquals("Paul Morphy", game.tags().get("White"));
+            Assertions.assertEquals(33, game.game().getPly());
+            Assertions.assertTrue(game.game().isInCheckmate(ChessGame.TeamColor.BLACK));
+            Assertions.assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void readsPromotionFromFen() throws IOException {
+        try (var reader = reader(PROMOTION_GAME)) {
+            var game = reader.next();
+            Assertions.assertEquals("*", game.result());
+            Assertions.assertEquals("8/3k4/8/1Q6/8/8/8/4K3 b - - 2 2", game.game().toFen());
+        }
+    }
+
+    @Test
+    public void illegalMoveSkipsToNextGame() throws IOException {
+        try (var reader = reader(EN_PASSANT_GAME)) {
+            var error = Assertions.assertThrows(PgnException.class, reader::next);
+            Assertions.assertTrue(error.getMessage().contains("0-0"), error.getMessage());
+            var next = reader.next();
+            Assertions.assertEquals("Next", next.tags().get("Event"));
+            Assertions.assertEquals(1, next.game().getPly());
+        }
+    }
+
+    @Test
+    public void writerRoundTrips() throws IOException {
+        PgnGame original;
+        try (var reader = reader(OPERA_GAME + PROMOTION_GAME)) {
+            original = reader.next();
+            var out = new StringBuilder();
+            var writer = new PgnWriter(out);
+            writer.write(original);
+            writer.write(reader.next());
+            String text = out.toString();
+            Assertions.assertTrue(text.startsWith("[Event \"Paris\"]\n"), text);
+            Assertions.assertTrue(text.contains("11. Bxb5+ Nbd7 12. O-O-O Rd8"), text);
+            Assertions.assertTrue(text.contains("17. Rd8# 1-0\n\n"), text);
+            Assertions.assertTrue(text.contains("1. b8=Q+ Kd7 2. Qb5+ *"), text);
+            for (String line : text.split("\n")) {
+                Assertions.assertTrue(line.length() <= 80, line);
+            }
+
+            try (var again = reader(text)) {
+                var copy = again.next();
+                Assertions.assertEquals(original.tags(), copy.tags());
+                Assertions.assertEquals(original.game().getMoveHistory(), copy.game().getMoveHistory());
+                Assertions.assertEquals(3, again.next().game().getPly());
+            }
+        }
+    }
+
+    @Test
+    public void parallelReadMatchesSequential() throws IOException {
+        Path file = Files.createTempFile("games", ".pgn");
+        try {
+            var text = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                text.append(OPERA_GAME).append(PROMOTION_GAME).append(EN_PASSANT_GAME).append('\n');
+            }
+            Files.writeString(file, text);
+
+            long sequential = 0;
+            int sequentialErrors = 0;
+            try (var reader = PgnReader.open(file)) {
+                while (true) {
+                    try {
+                        if (reader.next() == null) {
+                            break;
+                        }
+                        sequential++;
+                    } catch (PgnException e) {
+                        sequentialErrors++;
+                    }
+                }
+            }
+            Assertions.assertEquals(600, sequential);
+            Assertions.assertEquals(200, sequentialErrors);
+
+            var plies = new AtomicLong();
+            var errors = new AtomicInteger();
+            long parallel = PgnReader.readAll(file, 4, 1024,
+                    game -> plies.addAndGet(game.game().getPly()), error -> errors.incrementAndGet());
+            Assertions.assertEquals(sequential, parallel);
+            Assertions.assertEquals(sequentialErrors, errors.get());
+            Assertions.assertEquals(200L * (33 + 3 + 1), plies.get());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static PgnReader reader(String text) {
+        return new PgnReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}